@@ -0,0 +1,75 @@
+package com.example.bankingapp.config;
+
+import com.example.bankingapp.exception.InsufficientFundsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call of a public {@code AccountService} method as {@code account.service}, tagged with the
+ * operation, and counts the calls that failed because the account does not exist or has insufficient funds
+ * as {@code account.service.errors}. The time a call waited for a connection from the pool is recorded as
+ * {@code account.service.connection.wait}, for the calls that obtained one, so pool starvation shows up next
+ * to the operation it slows down; the pool itself is published as {@code hikaricp.connections.*}. The meters
+ * of a method are registered on its first call; later calls only read the clock and update the meters, which
+ * allocates nothing.
+ */
+class AccountServiceMetrics implements MethodInterceptor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    AccountServiceMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Meters operation = meters.get(invocation.getMethod());
+        if (operation == null) {
+            operation = meters.computeIfAbsent(invocation.getMethod(), this::register);
+        }
+        long connections = SqlStatementListener.connectionsAcquired();
+        long connectionWait = SqlStatementListener.connectionWaitNanos();
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } catch (EntityNotFoundException ex) {
+            operation.notFound.increment();
+            throw ex;
+        } catch (InsufficientFundsException ex) {
+            operation.insufficientFunds.increment();
+            throw ex;
+        } finally {
+            operation.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (SqlStatementListener.connectionsAcquired() != connections) {
+                operation.connectionWait.record(SqlStatementListener.connectionWaitNanos() - connectionWait,
+                        TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Meters register(Method method) {
+        MeterRegistry registry = meterRegistry.getObject();
+        String operation = method.getName();
+        return new Meters(
+                Timer.builder("account.service").tag("operation", operation).register(registry),
+                Timer.builder("account.service.connection.wait").tag("operation", operation).register(registry),
+                registry.counter("account.service.errors",
+                        "operation", operation, "exception", EntityNotFoundException.class.getSimpleName()),
+                registry.counter("account.service.errors",
+                        "operation", operation, "exception", InsufficientFundsException.class.getSimpleName()));
+    }
+
+    private record Meters(Timer timer, Timer connectionWait, Counter notFound, Counter insufficientFunds) {
+    }
+}
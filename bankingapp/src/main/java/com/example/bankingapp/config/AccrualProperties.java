@@ -0,0 +1,60 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+
+/**
+ * Settings of the end-of-day interest accrual, bound from {@code bankingapp.accrual.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.accrual")
+public class AccrualProperties {
+
+    /**
+     * Whether the accrual of the previous business date runs on the {@link #cron} schedule.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Schedule of the accrual run.
+     */
+    private String cron = "0 5 0 * * *";
+
+    /**
+     * Time zone of the schedule and of the business date.
+     */
+    private ZoneId zone = ZoneId.of("UTC");
+
+    /**
+     * Annual interest rate, e.g. {@code 0.015} for 1.5%; the daily interest is rounded down to minor units.
+     */
+    private BigDecimal annualInterestRate = BigDecimal.ZERO;
+
+    /**
+     * Number of days the annual rate is divided by.
+     */
+    private int dayCount = 365;
+
+    /**
+     * Fee charged per account and business date, in major units; waived if the balance does not cover it.
+     */
+    private BigDecimal dailyFee = BigDecimal.ZERO;
+
+    /**
+     * Number of partitions processed concurrently; defaults to the number of processors.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Width of the account ID range of one partition and its checkpoint.
+     */
+    private int partitionSize = 100_000;
+
+    /**
+     * Number of accounts locked, posted and checkpointed in one transaction.
+     */
+    private int chunkSize = 500;
+}
@@ -0,0 +1,19 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the administrative endpoints, bound from {@code bankingapp.admin.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.admin")
+public class AdminProperties {
+
+    /**
+     * Whether the endpoints under {@code /api/admin} are served. They run jobs over every account, posting
+     * interest and fees or rebuilding balances from the journal, so they stay off unless the instance is
+     * reachable by operators only.
+     */
+    private boolean enabled = false;
+}
@@ -0,0 +1,27 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the batch account lookup, bound from {@code bankingapp.batch-get.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.batch-get")
+public class BatchGetProperties {
+
+    /**
+     * Maximum number of IDs and account numbers together in one lookup.
+     */
+    private int maxSize = 1000;
+
+    /**
+     * Maximum number of keys in the {@code IN} list of one query.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Whether the queries of a lookup that needs several run concurrently on the application task executor.
+     */
+    private boolean parallel = false;
+}
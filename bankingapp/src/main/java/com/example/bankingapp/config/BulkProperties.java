@@ -0,0 +1,22 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the bulk account import, bound from {@code bankingapp.bulk.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.bulk")
+public class BulkProperties {
+
+    /**
+     * Number of accounts inserted per transaction and JDBC batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Maximum number of row errors included in an import report; further errors are only counted.
+     */
+    private int maxReportedErrors = 100;
+}
@@ -0,0 +1,29 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the bulkhead in front of the connection pool, bound from {@code bankingapp.bulkhead.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * Whether database access is limited by the bulkhead; defaults to whether virtual threads are enabled.
+     */
+    private Boolean enabled;
+
+    /**
+     * Maximum number of connections in use at once; defaults to the maximum size of the connection pool.
+     */
+    private Integer maxConcurrent;
+
+    /**
+     * Maximum time to wait for a free slot before the request fails with 503 Service Unavailable.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,29 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the read-through account cache, bound from {@code bankingapp.cache.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.cache")
+public class CacheProperties {
+
+    /**
+     * Whether account reads are served from the cache.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of cached accounts; the least recently used ones are evicted beyond it.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Time after which a cached account is reloaded even if it was not changed through this instance.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+}
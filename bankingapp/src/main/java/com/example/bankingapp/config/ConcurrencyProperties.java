@@ -0,0 +1,49 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the concurrency control for account updates, bound from {@code bankingapp.concurrency.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.concurrency")
+public class ConcurrencyProperties {
+
+    /**
+     * How accounts are read for a read-modify-write.
+     */
+    private Strategy strategy = Strategy.PESSIMISTIC;
+
+    /**
+     * Maximum number of attempts of a transaction that lost an update to a concurrent one.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * Upper bound of the random backoff before the first retry; it doubles with every further retry.
+     */
+    private Duration initialBackoff = Duration.ofMillis(1);
+
+    /**
+     * Upper bound of the random backoff before any retry.
+     */
+    private Duration maxBackoff = Duration.ofMillis(100);
+
+    public enum Strategy {
+
+        /**
+         * Accounts are read with {@code SELECT ... FOR UPDATE}, so concurrent writers of the same account
+         * queue up on the row lock. Suited to hot accounts.
+         */
+        PESSIMISTIC,
+
+        /**
+         * Accounts are read without a lock and the write is checked against the version that was read; a
+         * transaction that lost the race is retried. Suited to accounts that are rarely written concurrently.
+         */
+        OPTIMISTIC
+    }
+}
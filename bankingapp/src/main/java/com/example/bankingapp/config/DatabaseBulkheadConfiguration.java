@@ -0,0 +1,59 @@
+package com.example.bankingapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a {@link BulkheadDataSource} in front of the connection pool, sized to the pool unless configured
+ * otherwise. With virtual threads every request gets its own thread, so this, not the request thread pool,
+ * bounds the database work in flight; it is therefore on by default with virtual threads only, since on platform
+ * threads the pool already limits concurrency. The slots are published as {@code db.bulkhead.*} metrics.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${bankingapp.bulkhead.enabled:${spring.threads.virtual.enabled:false}}")
+@Slf4j
+public class DatabaseBulkheadConfiguration {
+
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor databaseBulkheadPostProcessor(ObjectProvider<BulkheadProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource pool)) {
+                    return bean;
+                }
+                BulkheadProperties bulkhead = properties.getObject();
+                // an unset pool size is only replaced by Hikari's default when the pool starts
+                int poolSize = pool.getMaximumPoolSize() > 0 ? pool.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+                int maxConcurrent = bulkhead.getMaxConcurrent() != null ? bulkhead.getMaxConcurrent() : poolSize;
+                log.debug("Limiting database access to {} concurrent connections", maxConcurrent);
+                return new BulkheadDataSource(pool, maxConcurrent, bulkhead.getAcquireTimeout());
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder databaseBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BulkheadDataSource bulkhead) {
+                Gauge.builder("db.bulkhead.max", bulkhead, BulkheadDataSource::getMaxConcurrent).register(registry);
+                Gauge.builder("db.bulkhead.available", bulkhead, BulkheadDataSource::getAvailable).register(registry);
+                Gauge.builder("db.bulkhead.waiting", bulkhead, BulkheadDataSource::getWaiting).register(registry);
+                FunctionCounter.builder("db.bulkhead.rejections", bulkhead, BulkheadDataSource::getRejections)
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the balance change feed, bound from {@code bankingapp.feed.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.feed")
+public class FeedProperties {
+
+    /**
+     * Whether committed account changes are published on the feed. Off by default: while it is on, every change
+     * is published, with a transaction synchronization, whether or not anyone subscribes.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of recent changes kept for subscribers, rounded up to a power of two. A subscriber that falls
+     * further behind is moved to the latest change and told to catch up.
+     */
+    private int capacity = 65_536;
+
+    /**
+     * Maximum number of concurrent subscribers; each is served by its own delivery thread.
+     */
+    private int maxSubscribers = 1000;
+
+    /**
+     * Interval of keep-alive messages while there are no changes to deliver.
+     */
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    /**
+     * Time after which a subscription is closed; clients reconnect and resume after the last sequence number.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
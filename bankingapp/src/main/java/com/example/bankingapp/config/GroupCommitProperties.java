@@ -0,0 +1,27 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the group commit of deposits and withdrawals, bound from {@code bankingapp.group-commit.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.group-commit")
+public class GroupCommitProperties {
+
+    /**
+     * Whether deposits and withdrawals are queued and committed in batches instead of one transaction each.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of queued operations; callers block while the queue is full.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Maximum number of operations committed in a single transaction.
+     */
+    private int maxBatchSize = 500;
+}
@@ -0,0 +1,29 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the idempotency key store, bound from {@code bankingapp.idempotency.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Maximum number of outcomes held in memory; older keys are then answered from the database.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * Time for which a key is remembered. Stored outcomes older than this are purged.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Delay between two purges of expired outcomes from the database.
+     */
+    private Duration purgeInterval = Duration.ofMinutes(10);
+}
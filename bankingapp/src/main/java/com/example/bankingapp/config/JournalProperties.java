@@ -0,0 +1,27 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the transaction journal replay, bound from {@code bankingapp.journal.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.journal")
+public class JournalProperties {
+
+    /**
+     * Number of account partitions replayed concurrently; defaults to the number of processors.
+     */
+    private int replayParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Width of the account ID range replayed by one partition.
+     */
+    private int replayPartitionSize = 10_000;
+
+    /**
+     * Maximum number of mismatched accounts listed in a replay report; further ones are only counted.
+     */
+    private int maxReportedMismatches = 100;
+}
@@ -0,0 +1,28 @@
+package com.example.bankingapp.config;
+
+import com.example.bankingapp.service.BalanceLedger;
+import com.example.bankingapp.service.BalanceSnapshotService;
+import com.example.bankingapp.service.GroupCommit;
+import com.example.bankingapp.service.IdempotencyService;
+import com.example.bankingapp.service.InterestAccrualService;
+import com.example.bankingapp.service.ShardedAccountStore;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps the beans that start background work eager under {@code spring.main.lazy-initialization}:
+ * the write-behind ledger and group commit writer, the snapshot, idempotency and accrual schedules,
+ * the recovery of interrupted cross-shard transfers and the pinning monitor would otherwise only start
+ * with the first request that happens to need them.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfiguration {
+
+    @Bean
+    static LazyInitializationExcludeFilter backgroundWorkLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(BalanceLedger.class, GroupCommit.class,
+                BalanceSnapshotService.class, IdempotencyService.class, InterestAccrualService.class,
+                ShardedAccountStore.class, VirtualThreadPinningMonitor.class);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-memory balance ledger, bound from {@code bankingapp.ledger.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.ledger")
+public class LedgerProperties {
+
+    /**
+     * Whether deposits and withdrawals are applied to the in-memory ledger instead of the database row.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Delay between two write-behind flushes of pending balance changes.
+     */
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /**
+     * Maximum number of account updates written in a single flush transaction.
+     */
+    private int flushBatchSize = 500;
+
+    /**
+     * Time an account stays in the ledger without being used once its changes are flushed. It is dropped by a
+     * later flush, between one and two timeouts after its last use, and loaded again on its next use.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,64 @@
+package com.example.bankingapp.config;
+
+import com.example.bankingapp.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Instruments the {@link AccountService} operations and counts the SQL statements of every request.
+ * Endpoint latencies and throughput come from the {@code http.server.requests} metrics Spring Boot records
+ * for every controller method; all metrics are served by the {@code prometheus} and {@code metrics}
+ * actuator endpoints.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "bankingapp.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfiguration {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor accountServiceMetricsAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return AccountService.class.isAssignableFrom(targetClass)
+                        && method.getDeclaringClass() == AccountService.class
+                        && Modifier.isPublic(method.getModifiers());
+            }
+        }, new AccountServiceMetrics(meterRegistry));
+        // outside the transaction interceptor, so the commit is part of the measured time
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer sqlStatementListenerCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                SqlStatementListener.class.getName());
+    }
+
+    @Bean
+    WebMvcConfigurer sqlRequestMetricsConfigurer(MeterRegistry meterRegistry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new SqlRequestMetrics(meterRegistry));
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the application metrics, bound from {@code bankingapp.metrics.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.metrics")
+public class MetricsProperties {
+
+    /**
+     * Whether service operations and the SQL statements of each request are timed.
+     */
+    private boolean enabled = true;
+}
@@ -0,0 +1,33 @@
+package com.example.bankingapp.config;
+
+import com.example.bankingapp.service.AccountService;
+import com.example.bankingapp.service.RateLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Applies the {@link RateLimiter} to the endpoints that change balances: deposits and withdrawals per account
+ * and per client, transfers per client. Rejected requests are answered with {@code 429 Too Many Requests}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "bankingapp.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfiguration {
+
+    @Bean
+    WebMvcConfigurer rateLimitConfigurer(RateLimiter rateLimiter, AccountService accountService,
+                                         RateLimitProperties properties) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                String clientHeader = properties.isTrustClientHeader() ? properties.getClientHeader() : null;
+                registry.addInterceptor(new RateLimitInterceptor(rateLimiter, accountService, clientHeader))
+                        .addPathPatterns("/api/account/*/deposit", "/api/account/*/withdraw",
+                                "/api/account/by-number/*/deposit", "/api/account/by-number/*/withdraw",
+                                "/api/account/transfer", "/api/account/transfer/batch");
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.bankingapp.config;
+
+import com.example.bankingapp.service.AccountService;
+import com.example.bankingapp.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Admits a request only if neither its client nor the account in its path is over its rate limit.
+ * The account is keyed by its ID, so requests that address it by its account number share its limit.
+ * The client is keyed by its authenticated principal, or else its remote address; a client header is only
+ * used when it is trusted, i.e. set by a proxy in front of the application, since a client could otherwise
+ * send a new value with every request, or the value of another client.
+ */
+class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+    private final AccountService accountService;
+    private final String clientHeader;
+
+    /**
+     * @param clientHeader the trusted header identifying the client, or {@code null} to ignore client headers.
+     */
+    RateLimitInterceptor(RateLimiter rateLimiter, AccountService accountService, String clientHeader) {
+        this.rateLimiter = rateLimiter;
+        this.accountService = accountService;
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        Long accountId = variables != null ? accountId(variables) : null;
+        rateLimiter.acquire(accountId != null ? "account:" + accountId : null, clientKey(request));
+        return true;
+    }
+
+    /**
+     * Resolves the account in the path to its ID the way the handler does, so an unknown account number fails
+     * the request as it would in the handler.
+     *
+     * @return the ID, or {@code null} if the path has no account or a malformed ID, which the handler rejects.
+     */
+    private Long accountId(Map<String, String> variables) {
+        if (variables.containsKey("accountNumber")) {
+            return accountService.resolveId(variables.get("accountNumber"));
+        }
+        try {
+            return variables.containsKey("id") ? Long.valueOf(variables.get("id")) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String client = clientHeader != null ? request.getHeader(clientHeader) : null;
+        if (client != null) {
+            return "header:" + client;
+        }
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the rate limits on deposits, withdrawals and transfers, bound from {@code bankingapp.rate-limit.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether requests over the limits are rejected.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Limit of the deposits and withdrawals of a single account.
+     */
+    private Limit account = new Limit(20, 10);
+
+    /**
+     * Limit of the deposits, withdrawals and transfers of a single client.
+     */
+    private Limit client = new Limit(200, 100);
+
+    /**
+     * Request header identifying the client, used only if {@link #trustClientHeader} is set.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * Whether the {@link #clientHeader} is trusted, e.g. because a proxy in front of the application sets it and
+     * drops any value sent by the client. Otherwise clients are limited by their authenticated principal, or
+     * else by their remote address.
+     */
+    private boolean trustClientHeader = false;
+
+    /**
+     * Maximum number of accounts and of clients whose buckets are held; the least recently used are dropped.
+     */
+    private long maximumKeys = 1_000_000;
+
+    /**
+     * Time after which the bucket of an idle key is dropped. A bucket idle for longer than it takes to refill
+     * completely is full anyway, so dropping it loses nothing.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(1);
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Number of requests that may be made at once after being idle.
+         */
+        private int capacity;
+
+        /**
+         * Number of requests per second that may be made in the long run.
+         */
+        private double refillPerSecond;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the sharded account storage, bound from {@code bankingapp.sharding.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.sharding")
+public class ShardingProperties {
+
+    /**
+     * Whether accounts are stored in the shard databases instead of the application's data source.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of shards. Account IDs encode their shard, so the count cannot change once accounts exist.
+     */
+    private int count = 4;
+
+    /**
+     * JDBC URL of the shard databases, in which {@code {shard}} is replaced by the shard index, starting at 0.
+     * User name and password are those of the application's data source.
+     */
+    private String url = "jdbc:h2:file:./src/main/resources/data/shard-{shard};DB_CLOSE_ON_EXIT=FALSE";
+
+    /**
+     * Maximum number of connections of each shard's pool.
+     */
+    private int poolSize = 10;
+
+    /**
+     * Number of accounts read from a shard at a time while all accounts are streamed in ID order.
+     */
+    private int streamBatchSize = 500;
+
+    /**
+     * Number of times a shard's part of a decided cross-shard transfer is committed from another connection
+     * when committing it on its own connection failed.
+     */
+    private int commitRetries = 5;
+
+    /**
+     * Pause between the retried commits of a shard's part of a decided cross-shard transfer.
+     */
+    private Duration commitRetryDelay = Duration.ofMillis(200);
+}
@@ -0,0 +1,29 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the background balance snapshots, bound from {@code bankingapp.snapshot.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.snapshot")
+public class SnapshotProperties {
+
+    /**
+     * Number of journal entries of an account after which a new snapshot is taken.
+     */
+    private int operations = 100;
+
+    /**
+     * Maximum time an account with new journal entries waits for its next snapshot.
+     */
+    private Duration maxAge = Duration.ofMinutes(1);
+
+    /**
+     * Delay between two checks for accounts that are due for a snapshot.
+     */
+    private Duration checkInterval = Duration.ofSeconds(1);
+}
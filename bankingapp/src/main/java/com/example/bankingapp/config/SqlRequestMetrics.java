@@ -0,0 +1,65 @@
+package com.example.bankingapp.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the number of SQL statements each request executed, and the time spent in them, per controller
+ * method as {@code http.server.requests.sql.statements} and {@code http.server.requests.sql.time}, tagged
+ * with the endpoint. A request that suddenly executes more statements than before points at an N+1 query.
+ * Only statements issued through Hibernate on the request thread are counted.
+ */
+class SqlRequestMetrics implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    SqlRequestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementListener.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SqlStatementListener.Statistics statistics = SqlStatementListener.stop();
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        Meters endpoint = meters.get(handlerMethod.getMethod());
+        if (endpoint == null) {
+            endpoint = meters.computeIfAbsent(handlerMethod.getMethod(), this::register);
+        }
+        endpoint.statements.record(statistics.statements());
+        endpoint.time.record(statistics.nanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private Meters register(Method method) {
+        String endpoint = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new Meters(
+                DistributionSummary.builder("http.server.requests.sql.statements")
+                        .tag("endpoint", endpoint)
+                        .register(meterRegistry),
+                Timer.builder("http.server.requests.sql.time")
+                        .tag("endpoint", endpoint)
+                        .register(meterRegistry));
+    }
+
+    private record Meters(DistributionSummary statements, Timer time) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.bankingapp.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Counts the JDBC statements Hibernate executes on the current thread while a request is being measured,
+ * and the time spent executing them; a batch counts as one statement. Also adds up, at all times, the
+ * connections the thread obtained from the pool and how long it waited for them, which includes the wait in
+ * the database bulkhead. Hibernate creates one listener per session, while the counts live in a reusable
+ * per-thread holder, so counting allocates nothing.
+ */
+public class SqlStatementListener extends BaseSessionEventListener {
+
+    private static final ThreadLocal<Statistics> CURRENT = ThreadLocal.withInitial(Statistics::new);
+
+    /**
+     * Starts counting the statements of the current thread from zero.
+     */
+    static void start() {
+        Statistics statistics = CURRENT.get();
+        statistics.statements = 0;
+        statistics.nanos = 0;
+        statistics.active = true;
+    }
+
+    /**
+     * Stops counting and returns the counts of the current thread, valid until it starts counting again.
+     */
+    static Statistics stop() {
+        Statistics statistics = CURRENT.get();
+        statistics.active = false;
+        return statistics;
+    }
+
+    /**
+     * Returns the number of connections the current thread has obtained since it started.
+     */
+    static long connectionsAcquired() {
+        return CURRENT.get().connections;
+    }
+
+    /**
+     * Returns the total time the current thread has waited for connections since it started, in nanoseconds.
+     */
+    static long connectionWaitNanos() {
+        return CURRENT.get().connectionWaitNanos;
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        CURRENT.get().connectionRequested = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        Statistics statistics = CURRENT.get();
+        statistics.connections++;
+        statistics.connectionWaitNanos += System.nanoTime() - statistics.connectionRequested;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStarted();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statementEnded();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        statementStarted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statementEnded();
+    }
+
+    private static void statementStarted() {
+        Statistics statistics = CURRENT.get();
+        if (statistics.active) {
+            statistics.started = System.nanoTime();
+        }
+    }
+
+    private static void statementEnded() {
+        Statistics statistics = CURRENT.get();
+        if (statistics.active) {
+            statistics.statements++;
+            statistics.nanos += System.nanoTime() - statistics.started;
+        }
+    }
+
+    static final class Statistics {
+
+        private boolean active;
+        private long started;
+        private int statements;
+        private long nanos;
+        private long connectionRequested;
+        private long connections;
+        private long connectionWaitNanos;
+
+        int statements() {
+            return statements;
+        }
+
+        long nanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bankingapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, typically by blocking inside a
+ * {@code synchronized} block, such as a JDBC driver call made in a transaction. Pinning events are read from
+ * an in-process JFR stream. The first event of each call site is logged with its stack, and all of them are
+ * counted as {@code jvm.threads.virtual.pinned}, tagged with whether a Spring transaction was on the stack.
+ */
+@Component
+@ConditionalOnProperty(prefix = "spring.threads.virtual", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final VirtualThreadProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+
+    private RecordingStream recording;
+
+    @PostConstruct
+    void startMonitoring() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("Virtual threads need Java 21 or later, requests run on platform threads on Java {}",
+                    Runtime.version().feature());
+            return;
+        }
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(properties.getPinnedThreshold()).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::report);
+        recording.startAsync();
+    }
+
+    @PreDestroy
+    void stopMonitoring() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * Number of pinning events per call site, the first application frame of the pinned stack.
+     */
+    public Map<String, Long> getPinnedSites() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        pinnedSites.forEach((site, count) -> counts.put(site, count.sum()));
+        return counts;
+    }
+
+    private void report(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        boolean transactional = frames.stream()
+                .anyMatch(frame -> typeName(frame).startsWith("org.springframework.transaction."));
+        String site = frames.stream()
+                .filter(frame -> typeName(frame).startsWith("com.example.bankingapp."))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("unknown");
+        meterRegistry.counter("jvm.threads.virtual.pinned", "transactional", String.valueOf(transactional))
+                .increment();
+        LongAdder added = new LongAdder();
+        LongAdder existing = pinnedSites.putIfAbsent(site, added);
+        (existing != null ? existing : added).increment();
+        if (existing == null) {
+            StringBuilder stack = new StringBuilder();
+            frames.stream().limit(LOGGED_FRAMES).forEach(frame -> stack.append("\n\tat ").append(describe(frame)));
+            log.warn("Virtual thread pinned for {} at {}{}{}", event.getDuration(), site,
+                    transactional ? " inside a transaction" : "", stack);
+        }
+    }
+
+    private static String typeName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName();
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return typeName(frame) + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
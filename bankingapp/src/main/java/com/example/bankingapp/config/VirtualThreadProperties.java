@@ -0,0 +1,20 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the virtual thread diagnostics, bound from {@code bankingapp.virtual-threads.*}.
+ * Virtual threads themselves are switched on with {@code spring.threads.virtual.enabled} and need Java 21.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.virtual-threads")
+public class VirtualThreadProperties {
+
+    /**
+     * Minimum time a virtual thread must stay pinned to its carrier thread to be reported.
+     */
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+}
@@ -0,0 +1,22 @@
+package com.example.bankingapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the startup warmup, bound from {@code bankingapp.warmup.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "bankingapp.warmup")
+public class WarmupProperties {
+
+    /**
+     * Whether the read paths are exercised after startup, before the application reports readiness.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of times each read path is exercised.
+     */
+    private int iterations = 200;
+}
@@ -1,21 +1,51 @@
 package com.example.bankingapp.controller;
 
+import com.example.bankingapp.dto.AccountBatchDTO;
+import com.example.bankingapp.dto.AccountBatchGetDTO;
 import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.AccountPageDTO;
+import com.example.bankingapp.dto.BalanceDTO;
+import com.example.bankingapp.dto.ImportReportDTO;
+import com.example.bankingapp.dto.TransactionPageDTO;
+import com.example.bankingapp.dto.TransferBatchDTO;
+import com.example.bankingapp.dto.TransferDTO;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.service.AccountBatchService;
+import com.example.bankingapp.service.AccountBulkService;
 import com.example.bankingapp.service.AccountService;
+import com.example.bankingapp.service.BalanceSnapshotService;
+import com.example.bankingapp.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/account")
@@ -24,6 +54,13 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final AccountBulkService accountBulkService;
+    private final AccountBatchService accountBatchService;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final IdempotencyService idempotencyService;
+    private final AccountMapper accountMapper;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
 
     @PostMapping
     public AccountDTO createAccount(@Valid @RequestBody AccountDTO accountDTO) {
@@ -31,10 +68,63 @@ public class AccountController {
         return accountService.createAccount(accountDTO);
     }
 
-    @GetMapping
-    public List<AccountDTO> getAllAccounts() {
-        log.debug("Fetching all accounts");
-        return accountService.getAll();
+    /**
+     * Streams all accounts as a JSON array, as newline-delimited JSON when {@code application/x-ndjson}
+     * is requested, or as a CBOR array when {@code application/cbor} is requested. Elements are written as
+     * they are read, so the response is never held in memory.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<StreamingResponseBody> getAllAccounts(
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_JSON_VALUE) String accept) {
+        log.debug("Streaming all accounts");
+        if (acceptsNdjson(accept)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(this::writeNdjson);
+        }
+        if (accepts(accept, MediaType.APPLICATION_CBOR)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .body(out -> writeArray(cborConverter.getObjectMapper(), out));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writeArray(objectMapper, out));
+    }
+
+    /**
+     * Imports accounts from a CSV or NDJSON upload, which is read and inserted incrementally.
+     */
+    @PostMapping(value = "/import", consumes = {AccountBulkService.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ImportReportDTO importAccounts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                          InputStream body) throws IOException {
+        log.debug("Importing accounts from {}", contentType);
+        return accountBulkService.importAccounts(body, contentType);
+    }
+
+    /**
+     * Exports all accounts as CSV, or as newline-delimited JSON when {@code application/x-ndjson} is requested.
+     */
+    @GetMapping(value = "/export", produces = {AccountBulkService.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportAccounts(
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = AccountBulkService.TEXT_CSV_VALUE) String accept) {
+        log.debug("Exporting all accounts");
+        if (acceptsNdjson(accept)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(this::writeNdjson);
+        }
+        return ResponseEntity.ok()
+                .contentType(AccountBulkService.TEXT_CSV)
+                .body(accountBulkService::exportCsv);
+    }
+
+    @GetMapping("/page")
+    public AccountPageDTO getAccountPage(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "100") int size) {
+        log.debug("Fetching page of {} accounts at cursor: {}", size, cursor);
+        return accountService.getPage(cursor, size);
     }
 
     @GetMapping("/{id}")
@@ -43,22 +133,95 @@ public class AccountController {
         return accountService.getAccount(id);
     }
 
+    /**
+     * Looks up many accounts by ID and by account number in one request; missing accounts are reported
+     * per key instead of failing the request.
+     */
+    @PostMapping("/batch-get")
+    public AccountBatchDTO getAccounts(@Valid @RequestBody AccountBatchGetDTO batchGetDTO) {
+        log.debug("Looking up {} accounts by ID and {} by number",
+                batchGetDTO.getIds().size(), batchGetDTO.getAccountNumbers().size());
+        return accountBatchService.getAccounts(batchGetDTO.getIds(), batchGetDTO.getAccountNumbers());
+    }
+
+    @GetMapping("/by-number/{accountNumber}")
+    public AccountDTO getAccountByNumber(@PathVariable String accountNumber) {
+        log.debug("Fetching account with number: {}", accountNumber);
+        return accountService.getAccount(accountService.resolveId(accountNumber));
+    }
+
+    @GetMapping("/{id}/transactions")
+    public TransactionPageDTO getTransactions(@PathVariable Long id,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "100") int size) {
+        log.debug("Fetching page of {} journal entries of account ID: {} at cursor: {}", size, id, cursor);
+        return accountService.getTransactions(id, cursor, size);
+    }
+
+    /**
+     * Returns the balance of the account at {@code asOf} (an ISO-8601 instant), or now if it is omitted.
+     */
+    @GetMapping("/{id}/balance")
+    public BalanceDTO getBalance(@PathVariable Long id, @RequestParam(required = false) Instant asOf) {
+        log.debug("Fetching balance of account ID: {} as of {}", id, asOf);
+        return balanceSnapshotService.getBalanceAsOf(id, asOf);
+    }
+
     @PutMapping("/{id}")
     public AccountDTO updateAccount(@PathVariable Long id, @RequestBody AccountDTO accountDTO) {
         log.debug("Updating account with ID: {} and details: {}", id, accountDTO);
         return accountService.updateAccount(id, accountDTO);
     }
 
+    /**
+     * Deposits into the account. A request with an {@code Idempotency-Key} header is applied once per key;
+     * repeating it returns the original outcome, and reusing the key for a different request is a conflict.
+     */
     @PutMapping("/{id}/deposit")
-    public void deposit(@PathVariable Long id, @RequestParam Double amount) {
+    public void deposit(@PathVariable Long id, @RequestParam BigDecimal amount,
+                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         log.debug("Depositing amount {} to account ID: {}", amount, id);
-        accountService.deposit(id, amount);
+        deposit(id, Money.toMinorUnits(amount), idempotencyKey);
     }
 
+    /**
+     * Withdraws from the account, once per {@code Idempotency-Key} like {@link #deposit}. A rejection for
+     * insufficient funds is replayed as well.
+     */
     @PutMapping("/{id}/withdraw")
-    public void withdraw(@PathVariable Long id, @RequestParam Double amount) {
+    public void withdraw(@PathVariable Long id, @RequestParam BigDecimal amount,
+                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         log.debug("Withdrawing amount {} from account ID: {}", amount, id);
-        accountService.withdraw(id, amount);
+        withdraw(id, Money.toMinorUnits(amount), idempotencyKey);
+    }
+
+    @PutMapping("/by-number/{accountNumber}/deposit")
+    public void depositByNumber(
+            @PathVariable String accountNumber, @RequestParam BigDecimal amount,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        log.debug("Depositing amount {} to account number: {}", amount, accountNumber);
+        deposit(accountService.resolveId(accountNumber), Money.toMinorUnits(amount), idempotencyKey);
+    }
+
+    @PutMapping("/by-number/{accountNumber}/withdraw")
+    public void withdrawByNumber(
+            @PathVariable String accountNumber, @RequestParam BigDecimal amount,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        log.debug("Withdrawing amount {} from account number: {}", amount, accountNumber);
+        withdraw(accountService.resolveId(accountNumber), Money.toMinorUnits(amount), idempotencyKey);
+    }
+
+    @PostMapping("/transfer")
+    public void transfer(@Valid @RequestBody TransferDTO transferDTO) {
+        log.debug("Transferring {} from account ID: {} to account ID: {}",
+                transferDTO.getAmount(), transferDTO.getFromId(), transferDTO.getToId());
+        accountService.transfer(accountMapper.toTransfer(transferDTO));
+    }
+
+    @PostMapping("/transfer/batch")
+    public void transferBatch(@Valid @RequestBody TransferBatchDTO transferBatchDTO) {
+        log.debug("Applying batch of {} transfers", transferBatchDTO.getTransfers().size());
+        accountService.transferAll(accountMapper.toTransfers(transferBatchDTO.getTransfers()));
     }
 
     @DeleteMapping("/{id}")
@@ -66,4 +229,48 @@ public class AccountController {
         log.debug("Deleting account with ID: {}", id);
         accountService.deleteAccount(id);
     }
+
+    private void deposit(Long id, long amount, String idempotencyKey) {
+        idempotencyService.execute(idempotencyKey, TransactionType.DEPOSIT, id, amount,
+                record -> accountService.deposit(id, amount, record));
+    }
+
+    private void withdraw(Long id, long amount, String idempotencyKey) {
+        idempotencyService.execute(idempotencyKey, TransactionType.WITHDRAWAL, id, amount,
+                record -> accountService.withdraw(id, amount, record));
+    }
+
+    private static boolean acceptsNdjson(String accept) {
+        return accepts(accept, MediaType.APPLICATION_NDJSON);
+    }
+
+    private static boolean accepts(String accept, MediaType mediaType) {
+        return MediaType.parseMediaTypes(accept).stream().anyMatch(mediaType::equalsTypeAndSubtype);
+    }
+
+    private void writeArray(ObjectMapper mapper, OutputStream out) throws IOException {
+        ObjectWriter writer = mapper.writerFor(AccountDTO.class);
+        try (JsonGenerator generator = mapper.createGenerator(out)) {
+            generator.writeStartArray();
+            accountService.streamAll(account -> write(writer, generator, account));
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeNdjson(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(AccountDTO.class);
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            accountService.streamAll(account -> write(writer, generator, account));
+            generator.writeRaw('\n');
+        }
+    }
+
+    private static void write(ObjectWriter writer, JsonGenerator generator, AccountDTO account) {
+        try {
+            writer.writeValue(generator, account);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 }
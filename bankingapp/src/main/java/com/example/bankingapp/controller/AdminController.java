@@ -0,0 +1,49 @@
+package com.example.bankingapp.controller;
+
+import com.example.bankingapp.dto.AccrualReportDTO;
+import com.example.bankingapp.dto.ReplayReportDTO;
+import com.example.bankingapp.service.InterestAccrualService;
+import com.example.bankingapp.service.JournalReplayService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Jobs over every account for operators, served only with {@code bankingapp.admin.enabled}.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@ConditionalOnProperty(prefix = "bankingapp.admin", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final JournalReplayService journalReplayService;
+    private final InterestAccrualService interestAccrualService;
+
+    /**
+     * Verifies every stored balance against the transaction journal and, with {@code rebuild}, repairs the
+     * mismatched ones.
+     */
+    @PostMapping("/journal/replay")
+    public ReplayReportDTO replayJournal(@RequestParam(defaultValue = "false") boolean rebuild) {
+        log.debug("Replaying the transaction journal, rebuild: {}", rebuild);
+        return journalReplayService.replay(rebuild);
+    }
+
+    /**
+     * Posts the interest and fees of the business date to every account not posted yet; repeating the
+     * request, or resuming an interrupted run, never posts an account twice.
+     */
+    @PostMapping("/accrual")
+    public AccrualReportDTO accrueInterest(@RequestParam LocalDate businessDate) {
+        log.debug("Accruing interest of business date {}", businessDate);
+        return interestAccrualService.accrue(businessDate);
+    }
+}
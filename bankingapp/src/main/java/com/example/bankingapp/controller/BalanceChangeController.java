@@ -0,0 +1,52 @@
+package com.example.bankingapp.controller;
+
+import com.example.bankingapp.service.BalanceChangeFeed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/account")
+@ConditionalOnProperty(prefix = "bankingapp.feed", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceChangeController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final BalanceChangeFeed balanceChangeFeed;
+
+    /**
+     * Streams the committed changes of all accounts, or of the given {@code accountId}s, as server-sent events,
+     * or as newline-delimited JSON when {@code application/x-ndjson} is requested. The stream starts after the
+     * sequence number given by {@code after} or by the {@code Last-Event-ID} header of a reconnecting event
+     * source, and with new changes only without either.
+     */
+    @GetMapping(value = "/changes", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResponseBodyEmitter> streamChanges(
+            @RequestParam(required = false) Long after,
+            @RequestParam(name = "accountId", required = false) Set<Long> accountIds,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.TEXT_EVENT_STREAM_VALUE) String accept) {
+        boolean ndjson = MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        Long cursor = after != null ? after : lastEventId;
+        log.debug("Streaming balance changes after {} of accounts {}", cursor, accountIds);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : BalanceChangeFeed.TEXT_EVENT_STREAM_UTF8)
+                .cacheControl(CacheControl.noStore())
+                .body(balanceChangeFeed.stream(cursor, accountIds, ndjson));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bankingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch lookup: one result per requested ID in request order, followed by one result per
+ * requested account number in request order.
+ */
+@Data
+public class AccountBatchDTO {
+
+    private List<Result> results = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+
+        /**
+         * The requested ID, or {@code null} for a lookup by account number.
+         */
+        private Long id;
+
+        /**
+         * The requested account number, or {@code null} for a lookup by ID.
+         */
+        private String accountNumber;
+
+        private boolean found;
+
+        /**
+         * The account, or {@code null} if it was not found.
+         */
+        private AccountDTO account;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.bankingapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accounts to look up in one request, by ID and by account number.
+ */
+@Data
+public class AccountBatchGetDTO {
+
+    private List<@NotNull Long> ids = new ArrayList<>();
+
+    private List<@NotNull String> accountNumbers = new ArrayList<>();
+}
@@ -1,12 +1,17 @@
 package com.example.bankingapp.dto;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
+@JsonPropertyOrder({"id", "accountNumber", "name", "balance"})
 public class AccountDTO {
 
     private Long id;
@@ -21,5 +26,6 @@ public class AccountDTO {
     private String name;
 
     @PositiveOrZero(message = "Balance must be zero or positive")
-    private Double balance;
+    @Digits(integer = 16, fraction = 2, message = "Balance must have at most 16 integer and 2 fraction digits")
+    private BigDecimal balance;
 }
@@ -0,0 +1,21 @@
+package com.example.bankingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of accounts ordered by ID.
+ * {@code nextCursor} is passed back to fetch the following page and is {@code null} on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountPageDTO {
+
+    private List<AccountDTO> content;
+
+    private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.example.bankingapp.dto;
+
+import com.example.bankingapp.model.TransactionType;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Journal entry of an account; {@code amount} is negative for debits.
+ */
+@Data
+public class AccountTransactionDTO {
+
+    private long sequenceNumber;
+
+    private TransactionType type;
+
+    private BigDecimal amount;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,38 @@
+package com.example.bankingapp.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Outcome of an interest accrual run. The counts and totals cover what this run posted; accounts posted
+ * by an earlier, interrupted run of the same business date are not included.
+ */
+@Data
+public class AccrualReportDTO {
+
+    private LocalDate businessDate;
+
+    private long partitions;
+
+    /**
+     * Partitions that an earlier run of the business date had already started or completed.
+     */
+    private long resumedPartitions;
+
+    private long accounts;
+
+    private long interestPostings;
+
+    private long feePostings;
+
+    /**
+     * Fees not charged because the balance did not cover them.
+     */
+    private long waivedFees;
+
+    private BigDecimal interest;
+
+    private BigDecimal fees;
+}
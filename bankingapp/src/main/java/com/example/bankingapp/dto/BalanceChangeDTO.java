@@ -0,0 +1,76 @@
+package com.example.bankingapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Committed change of an account, as published on the balance change feed.
+ * {@code amount} is the signed change of the balance and {@code balance} the balance after it; the balance is
+ * {@code null} where it is not known without another read, e.g. for changes applied by the balance ledger or
+ * the group commit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"sequence", "accountId", "type", "amount", "balance", "timestamp"})
+public class BalanceChangeDTO {
+
+    /**
+     * Position on the feed, increasing with every change, with gaps where changes were rolled back; used as
+     * the cursor to resume after. Changes of one account are numbered in the order they were committed.
+     */
+    private long sequence;
+
+    private Long accountId;
+
+    private Type type;
+
+    private BigDecimal amount;
+
+    private BigDecimal balance;
+
+    private Instant timestamp;
+
+    public enum Type {
+
+        CREATED,
+
+        DEPOSIT,
+
+        WITHDRAWAL,
+
+        TRANSFER_IN,
+
+        TRANSFER_OUT,
+
+        UPDATED,
+
+        DELETED,
+
+        /**
+         * Interest posted by the end-of-day accrual.
+         */
+        INTEREST,
+
+        /**
+         * Fee charged by the end-of-day accrual.
+         */
+        FEE,
+
+        /**
+         * The stored balance was replaced by the balance rebuilt from the transaction journal.
+         */
+        REPAIRED,
+
+        /**
+         * Changes before this one were dropped because the subscriber fell behind; the subscriber should re-read
+         * the accounts it follows and continue with the changes after this sequence number.
+         */
+        CATCH_UP
+    }
+}
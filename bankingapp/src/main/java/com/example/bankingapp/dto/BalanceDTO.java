@@ -0,0 +1,23 @@
+package com.example.bankingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Balance of an account at a point in time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDTO {
+
+    private Long accountId;
+
+    private BigDecimal balance;
+
+    private Instant asOf;
+}
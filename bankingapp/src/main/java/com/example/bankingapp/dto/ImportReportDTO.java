@@ -0,0 +1,31 @@
+package com.example.bankingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk account import.
+ */
+@Data
+public class ImportReportDTO {
+
+    private long imported;
+
+    private long failed;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private long line;
+
+        private String message;
+    }
+}
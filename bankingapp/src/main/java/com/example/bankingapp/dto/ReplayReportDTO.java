@@ -0,0 +1,49 @@
+package com.example.bankingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of replaying the transaction journal against the stored balances.
+ */
+@Data
+public class ReplayReportDTO {
+
+    private long accounts;
+
+    private long entries;
+
+    /**
+     * Accounts whose stored balance differs from the sum of their journal entries.
+     */
+    private long mismatched;
+
+    /**
+     * Accounts whose journal sequence numbers are not contiguous.
+     */
+    private long sequenceGaps;
+
+    /**
+     * Mismatched accounts whose stored balance was replaced by the journal balance.
+     */
+    private long rebuilt;
+
+    private List<Mismatch> mismatches = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+
+        private long accountId;
+
+        private BigDecimal storedBalance;
+
+        private BigDecimal journalBalance;
+    }
+}
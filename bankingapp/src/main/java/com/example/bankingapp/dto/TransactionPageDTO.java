@@ -0,0 +1,21 @@
+package com.example.bankingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the journal of an account ordered by sequence number.
+ * {@code nextCursor} is passed back to fetch the following page and is {@code null} on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageDTO {
+
+    private List<AccountTransactionDTO> content;
+
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.example.bankingapp.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TransferBatchDTO {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid TransferDTO> transfers;
+}
@@ -0,0 +1,23 @@
+package com.example.bankingapp.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class TransferDTO {
+
+    @NotNull
+    private Long fromId;
+
+    @NotNull
+    private Long toId;
+
+    @NotNull
+    @Positive(message = "Transfer amount must be greater than zero")
+    @Digits(integer = 16, fraction = 2, message = "Amount must have at most 16 integer and 2 fraction digits")
+    private BigDecimal amount;
+}
@@ -0,0 +1,11 @@
+package com.example.bankingapp.exception;
+
+/**
+ * Thrown when an idempotency key is reused for a request that differs from the one it was first used for.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.bankingapp.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request exceeds the rate limit of its account or client.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Time after which the request would be admitted if no other request is made meanwhile.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.bankingapp.mapper;
 
 import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.AccountTransactionDTO;
+import com.example.bankingapp.dto.TransferDTO;
 import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.AccountTransaction;
+import com.example.bankingapp.model.AccountView;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.model.Transfer;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import static org.mapstruct.NullValueCheckStrategy.ALWAYS;
@@ -11,9 +19,33 @@ import static org.mapstruct.NullValueCheckStrategy.ALWAYS;
 @Mapper(componentModel = "spring", nullValueCheckStrategy = ALWAYS)
 public interface AccountMapper {
 
+    @Mapping(target = "journalSequence", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Account toEntity(AccountDTO dto);
 
     AccountDTO toDTO(Account entity);
 
     List<AccountDTO> toDTO(List<Account> entities);
+
+    AccountDTO toDTO(AccountView view);
+
+    List<AccountDTO> toDTOs(List<AccountView> views);
+
+    AccountDTO copy(AccountDTO dto);
+
+    Transfer toTransfer(TransferDTO dto);
+
+    List<Transfer> toTransfers(List<TransferDTO> dtos);
+
+    AccountTransactionDTO toTransactionDTO(AccountTransaction entity);
+
+    List<AccountTransactionDTO> toTransactionDTO(List<AccountTransaction> entities);
+
+    default long toMinorUnits(BigDecimal amount) {
+        return Money.toMinorUnits(amount);
+    }
+
+    default BigDecimal toMajorUnits(long minorUnits) {
+        return Money.toMajorUnits(minorUnits);
+    }
 }
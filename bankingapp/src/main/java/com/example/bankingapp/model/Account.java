@@ -5,16 +5,26 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Data
 @Entity
+@DynamicUpdate
 @Table(name = "account")
 public class Account {
 
+    /**
+     * Taken from a pooled sequence rather than an identity column, so Hibernate can batch inserts
+     * and hands out a block of IDs per sequence call.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "account_number", unique = true, nullable = false)
@@ -22,6 +32,26 @@ public class Account {
 
     private String name;
 
-    private Double balance;
+    /**
+     * Balance in minor units, see {@link Money}.
+     */
+    @Column(nullable = false)
+    private long balance;
+
+    /**
+     * Sequence number of the last {@link AccountTransaction} of this account.
+     */
+    @ColumnDefault("0")
+    @Column(name = "journal_sequence", nullable = false)
+    private long journalSequence;
+
+    /**
+     * Incremented by every update, which only succeeds if the row still has the version that was read.
+     * A write that would overwrite a concurrent one therefore fails instead of losing it.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 }
 
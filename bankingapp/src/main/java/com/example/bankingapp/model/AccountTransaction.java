@@ -0,0 +1,56 @@
+package com.example.bankingapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Append-only journal entry of one balance change. Entries are never updated or deleted, so the balance
+ * of an account equals the sum of the amounts of its entries.
+ * The unique key on account and sequence number also serves the per-account keyset reads and the replay.
+ */
+@Data
+@Entity
+@Table(name = "account_transaction", uniqueConstraints = @UniqueConstraint(
+        name = AccountTransaction.SEQUENCE_CONSTRAINT, columnNames = {"account_id", "sequence_number"}))
+public class AccountTransaction {
+
+    public static final String SEQUENCE_CONSTRAINT = "uk_account_transaction_sequence";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_transaction_seq")
+    @SequenceGenerator(name = "account_transaction_seq", sequenceName = "account_transaction_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * Position of the entry in the history of its account, starting at 1 without gaps.
+     */
+    @Column(name = "sequence_number", nullable = false)
+    private long sequenceNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TransactionType type;
+
+    /**
+     * Signed change of the balance in minor units, see {@link Money}.
+     */
+    @Column(nullable = false)
+    private long amount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,13 @@
+package com.example.bankingapp.model;
+
+/**
+ * Read-only projection of an {@link Account}, selected column by column instead of loaded as an entity,
+ * so reads do not put managed entities and their dirty-checking snapshots into the persistence context.
+ *
+ * @param id            the ID of the account.
+ * @param accountNumber the account number.
+ * @param name          the name of the account holder.
+ * @param balance       the balance in minor units, see {@link Money}.
+ */
+public record AccountView(Long id, String accountNumber, String name, long balance) {
+}
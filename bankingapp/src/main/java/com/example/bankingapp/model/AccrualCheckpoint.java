@@ -0,0 +1,61 @@
+package com.example.bankingapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Progress of the interest accrual of one business date over one account ID partition.
+ * The last processed account ID is advanced in the same transaction that posts to the accounts before it,
+ * so an interrupted run resumes right after the last committed chunk and never posts an account twice.
+ */
+@Data
+@Entity
+@IdClass(AccrualCheckpoint.Key.class)
+@Table(name = "accrual_checkpoint")
+public class AccrualCheckpoint {
+
+    @Id
+    @Column(name = "business_date")
+    private LocalDate businessDate;
+
+    /**
+     * First account ID of the partition.
+     */
+    @Id
+    @Column(name = "partition_start")
+    private long partitionStart;
+
+    /**
+     * Last account ID of the partition, inclusive.
+     */
+    @Column(name = "partition_end", nullable = false)
+    private long partitionEnd;
+
+    /**
+     * ID of the last account processed; {@code partitionStart - 1} before the first chunk.
+     */
+    @Column(name = "last_account_id", nullable = false)
+    private long lastAccountId;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private LocalDate businessDate;
+
+        private long partitionStart;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bankingapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Balance of an account after a given journal entry, so that historical balances are computed from the
+ * nearest snapshot and a short tail of the journal instead of the whole history.
+ */
+@Data
+@Entity
+@Table(name = "balance_snapshot",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_balance_snapshot_sequence", columnNames = {"account_id", "sequence_number"}),
+        indexes = @Index(name = "ix_balance_snapshot_as_of", columnList = "account_id, as_of"))
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_snapshot_seq")
+    @SequenceGenerator(name = "balance_snapshot_seq", sequenceName = "balance_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * Sequence number of the last journal entry included in the balance.
+     */
+    @Column(name = "sequence_number", nullable = false)
+    private long sequenceNumber;
+
+    /**
+     * Balance in minor units, see {@link Money}.
+     */
+    @Column(nullable = false)
+    private long balance;
+
+    /**
+     * Creation time of the last journal entry included in the balance.
+     */
+    @Column(name = "as_of", nullable = false)
+    private Instant asOf;
+}
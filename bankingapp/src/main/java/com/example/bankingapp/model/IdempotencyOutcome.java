@@ -0,0 +1,9 @@
+package com.example.bankingapp.model;
+
+/**
+ * Recorded result of a request made with an idempotency key, replayed when the key is used again.
+ */
+public enum IdempotencyOutcome {
+    APPLIED,
+    INSUFFICIENT_FUNDS
+}
@@ -0,0 +1,69 @@
+package com.example.bankingapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Durable outcome of a deposit or withdrawal made with an idempotency key, together with the request it
+ * belongs to. Records are only inserted, never updated, so saving one always issues an insert and a key
+ * that is already stored fails on the primary key instead of overwriting the earlier outcome.
+ */
+@Data
+@Entity
+@Table(name = "idempotency_record",
+        indexes = @Index(name = "ix_idempotency_record_created_at", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    /**
+     * The idempotency key sent by the client.
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TransactionType type;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * Requested amount in minor units, see {@link Money}.
+     */
+    @Column(nullable = false)
+    private long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IdempotencyOutcome outcome;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
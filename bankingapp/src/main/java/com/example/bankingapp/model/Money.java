@@ -0,0 +1,73 @@
+package com.example.bankingapp.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money arithmetic on primitive {@code long} minor units (e.g. cents).
+ * <p>
+ * Balances and amounts are stored and computed as minor units so that the hot path neither allocates
+ * nor accumulates floating-point rounding errors. {@link BigDecimal} is only used at the API boundary.
+ */
+public final class Money {
+
+    /**
+     * Number of fraction digits of the account currency, i.e. one major unit equals 10^SCALE minor units.
+     */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a major-unit amount to minor units.
+     *
+     * @param amount the amount in major units, e.g. {@code 12.34}.
+     * @return the amount in minor units, e.g. {@code 1234}.
+     * @throws IllegalArgumentException if the amount has more fraction digits than {@link #SCALE}
+     *                                  or does not fit into a {@code long}.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException(
+                    "Amount must have at most " + SCALE + " fraction digits and fit into the balance range", ex);
+        }
+    }
+
+    /**
+     * Converts minor units to a major-unit amount with {@link #SCALE} fraction digits.
+     *
+     * @param minorUnits the amount in minor units.
+     * @return the amount in major units.
+     */
+    public static BigDecimal toMajorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Adds two minor-unit amounts.
+     *
+     * @throws IllegalArgumentException if the result overflows the balance range.
+     */
+    public static long add(long balance, long amount) {
+        long result = balance + amount;
+        if (((balance ^ result) & (amount ^ result)) < 0) {
+            throw new IllegalArgumentException("Balance overflow");
+        }
+        return result;
+    }
+
+    /**
+     * Subtracts a minor-unit amount from a balance.
+     *
+     * @throws IllegalArgumentException if the result overflows the balance range.
+     */
+    public static long subtract(long balance, long amount) {
+        long result = balance - amount;
+        if (((balance ^ amount) & (balance ^ result)) < 0) {
+            throw new IllegalArgumentException("Balance overflow");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bankingapp.model;
+
+/**
+ * Kind of a balance change recorded in the transaction journal.
+ */
+public enum TransactionType {
+
+    /**
+     * Balance the account was created with.
+     */
+    OPENING,
+
+    DEPOSIT,
+
+    WITHDRAWAL,
+
+    TRANSFER_IN,
+
+    TRANSFER_OUT,
+
+    /**
+     * Balance set directly through an account update.
+     */
+    ADJUSTMENT,
+
+    /**
+     * Interest credited by the end-of-day accrual.
+     */
+    INTEREST,
+
+    /**
+     * Account fee charged by the end-of-day accrual.
+     */
+    FEE,
+
+    /**
+     * Net change accumulated by the balance ledger and written by one write-behind flush.
+     */
+    NET_CHANGE
+}
@@ -0,0 +1,11 @@
+package com.example.bankingapp.model;
+
+/**
+ * A movement of money between two accounts.
+ *
+ * @param fromId the ID of the debited account.
+ * @param toId   the ID of the credited account.
+ * @param amount the amount in minor units, see {@link Money}.
+ */
+public record Transfer(Long fromId, Long toId, long amount) {
+}
@@ -1,8 +1,72 @@
 package com.example.bankingapp.repository;
 
 import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.AccountView;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AccountRepository extends CrudRepository<Account, Long> {
-}
 
+    /**
+     * Loads the account and locks its row for the rest of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Resolves an account number to the account ID with a probe of the unique index, without loading the row.
+     */
+    @Query("select a.id from Account a where a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Loads the accounts and locks their rows for the rest of the transaction.
+     * Rows are locked in ascending ID order, so concurrent callers can never deadlock on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids order by a.id")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    List<Account> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Query("select new com.example.bankingapp.model.AccountView(a.id, a.accountNumber, a.name, a.balance) " +
+            "from Account a where a.id = :id")
+    Optional<AccountView> findViewById(@Param("id") Long id);
+
+    @Query("select new com.example.bankingapp.model.AccountView(a.id, a.accountNumber, a.name, a.balance) " +
+            "from Account a where a.id in :ids")
+    List<AccountView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.bankingapp.model.AccountView(a.id, a.accountNumber, a.name, a.balance) " +
+            "from Account a where a.accountNumber in :accountNumbers")
+    List<AccountView> findViewsByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    /**
+     * Keyset page: the accounts following the given ID, seeking on the primary key index.
+     */
+    @Query("select new com.example.bankingapp.model.AccountView(a.id, a.accountNumber, a.name, a.balance) " +
+            "from Account a where a.id > :id order by a.id")
+    List<AccountView> findViewsByIdGreaterThan(@Param("id") Long id, Limit limit);
+
+    /**
+     * Streams all accounts ordered by ID, fetching rows from the driver in bounded chunks.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.bankingapp.model.AccountView(a.id, a.accountNumber, a.name, a.balance) " +
+            "from Account a order by a.id")
+    Stream<AccountView> streamAllViewsOrderedById();
+}
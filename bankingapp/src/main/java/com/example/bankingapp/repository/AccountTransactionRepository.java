@@ -0,0 +1,43 @@
+package com.example.bankingapp.repository;
+
+import com.example.bankingapp.model.AccountTransaction;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface AccountTransactionRepository extends CrudRepository<AccountTransaction, Long> {
+
+    /**
+     * Keyset page of the journal of one account: the entries following the given sequence number.
+     * Ordering by the account ID as well lets the database read the (account, sequence number) index in order
+     * and stop at the limit instead of sorting the rest of the journal.
+     */
+    List<AccountTransaction> findByAccountIdAndSequenceNumberGreaterThanOrderByAccountIdAscSequenceNumberAsc(
+            Long accountId, long sequenceNumber, Limit limit);
+
+    /**
+     * The last entry of the journal of one account.
+     */
+    Optional<AccountTransaction> findFirstByAccountIdOrderByAccountIdDescSequenceNumberDesc(Long accountId);
+
+    /**
+     * Sums the amounts of the entries in the sequence range {@code (after, upTo]}, seeking on the
+     * (account, sequence number) index.
+     */
+    @Query("select coalesce(sum(t.amount), 0) from AccountTransaction t where t.accountId = :accountId " +
+            "and t.sequenceNumber > :after and t.sequenceNumber <= :upTo")
+    long sumAmounts(@Param("accountId") Long accountId, @Param("after") long after, @Param("upTo") long upTo);
+
+    /**
+     * Like {@link #sumAmounts}, restricted to the entries created at or before {@code asOf}.
+     */
+    @Query("select coalesce(sum(t.amount), 0) from AccountTransaction t where t.accountId = :accountId " +
+            "and t.sequenceNumber > :after and t.sequenceNumber <= :upTo and t.createdAt <= :asOf")
+    long sumAmountsUntil(@Param("accountId") Long accountId, @Param("after") long after,
+                         @Param("upTo") long upTo, @Param("asOf") Instant asOf);
+}
@@ -0,0 +1,28 @@
+package com.example.bankingapp.repository;
+
+import com.example.bankingapp.model.BalanceSnapshot;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface BalanceSnapshotRepository extends CrudRepository<BalanceSnapshot, Long> {
+
+    /**
+     * The latest snapshot of one account. Like the other lookups here, it orders by the account ID as well, so the
+     * database reads the first matching index entry instead of sorting all snapshots of the account.
+     */
+    Optional<BalanceSnapshot> findFirstByAccountIdOrderByAccountIdDescSequenceNumberDesc(Long accountId);
+
+    /**
+     * The latest snapshot taken at or before the given time.
+     */
+    Optional<BalanceSnapshot> findFirstByAccountIdAndAsOfLessThanEqualOrderByAccountIdDescAsOfDesc(
+            Long accountId, Instant asOf);
+
+    /**
+     * The earliest snapshot taken after the given time; it bounds the journal tail of an as-of query.
+     */
+    Optional<BalanceSnapshot> findFirstByAccountIdAndAsOfGreaterThanOrderByAccountIdAscAsOfAsc(
+            Long accountId, Instant asOf);
+}
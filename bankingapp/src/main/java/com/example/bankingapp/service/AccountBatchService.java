@@ -0,0 +1,132 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.BatchGetProperties;
+import com.example.bankingapp.dto.AccountBatchDTO;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.example.bankingapp.model.AccountView;
+import com.example.bankingapp.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Looks up many accounts in a few round trips.
+ * <p>
+ * The distinct keys of a lookup are split into chunks of {@link BatchGetProperties#getChunkSize()}, each
+ * resolved with one {@code IN}-list query into {@link AccountView} projections, so a lookup of n accounts
+ * costs n / chunk size queries instead of n.
+ * With {@link BatchGetProperties#isParallel()} the chunks are queried concurrently on the application task
+ * executor; each chunk takes its own connection, so this only pays off for lookups spanning many chunks.
+ * When accounts are sharded, each chunk queries every shard holding some of its keys, in parallel.
+ */
+@Service
+@Slf4j
+public class AccountBatchService {
+
+    private final AccountRepository accountRepository;
+    private final AccountMapper accountMapper;
+    private final BatchGetProperties properties;
+    private final Executor executor;
+    private final Optional<BalanceLedger> balanceLedger;
+    private final Optional<ShardedAccountStore> shardedAccountStore;
+
+    public AccountBatchService(AccountRepository accountRepository, AccountMapper accountMapper,
+                               BatchGetProperties properties,
+                               @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                               Executor executor,
+                               Optional<BalanceLedger> balanceLedger,
+                               Optional<ShardedAccountStore> shardedAccountStore) {
+        this.accountRepository = accountRepository;
+        this.accountMapper = accountMapper;
+        this.properties = properties;
+        this.executor = executor;
+        this.balanceLedger = balanceLedger;
+        this.shardedAccountStore = shardedAccountStore;
+    }
+
+    /**
+     * Looks up accounts by ID and by account number. A key that is requested several times is queried once.
+     *
+     * @param ids            the IDs of the accounts.
+     * @param accountNumbers the account numbers of the accounts.
+     * @return one result per requested ID, followed by one per requested account number, in request order;
+     * a key without an account has a result that is not {@code found}.
+     * @throws IllegalArgumentException if more keys than {@link BatchGetProperties#getMaxSize()} are requested.
+     */
+    public AccountBatchDTO getAccounts(List<Long> ids, List<String> accountNumbers) {
+        if (ids.size() + accountNumbers.size() > properties.getMaxSize()) {
+            throw new IllegalArgumentException(
+                    "At most " + properties.getMaxSize() + " accounts can be looked up at once");
+        }
+        log.debug("Looking up {} accounts by ID and {} by number", ids.size(), accountNumbers.size());
+        Function<List<Long>, List<AccountView>> findByIds = shardedAccountStore.isPresent()
+                ? shardedAccountStore.get()::findViewsByIdIn
+                : accountRepository::findViewsByIdIn;
+        Function<List<String>, List<AccountView>> findByNumbers = shardedAccountStore.isPresent()
+                ? shardedAccountStore.get()::findViewsByAccountNumberIn
+                : accountRepository::findViewsByAccountNumberIn;
+        Map<Long, AccountDTO> byId = load(ids, findByIds, AccountDTO::getId);
+        Map<String, AccountDTO> byNumber = load(accountNumbers, findByNumbers, AccountDTO::getAccountNumber);
+
+        AccountBatchDTO batch = new AccountBatchDTO();
+        for (Long id : ids) {
+            AccountDTO account = byId.get(id);
+            batch.getResults().add(new AccountBatchDTO.Result(id, null, account != null, account));
+        }
+        for (String accountNumber : accountNumbers) {
+            AccountDTO account = byNumber.get(accountNumber);
+            batch.getResults().add(new AccountBatchDTO.Result(null, accountNumber, account != null, account));
+        }
+        return batch;
+    }
+
+    private <K> Map<K, AccountDTO> load(List<K> keys, Function<List<K>, List<AccountView>> query,
+                                        Function<AccountDTO, K> key) {
+        List<K> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<List<K>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += properties.getChunkSize()) {
+            chunks.add(distinct.subList(from, Math.min(from + properties.getChunkSize(), distinct.size())));
+        }
+        Map<K, AccountDTO> accounts = new HashMap<>(distinct.size() * 2);
+        if (!properties.isParallel() || chunks.size() < 2) {
+            chunks.forEach(chunk -> loadChunk(chunk, query)
+                    .forEach(account -> accounts.put(key.apply(account), account)));
+            return accounts;
+        }
+        List<CompletableFuture<List<AccountDTO>>> futures = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> loadChunk(chunk, query), executor))
+                .toList();
+        try {
+            futures.forEach(future -> future.join().forEach(account -> accounts.put(key.apply(account), account)));
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return accounts;
+    }
+
+    private <K> List<AccountDTO> loadChunk(List<K> chunk, Function<List<K>, List<AccountView>> query) {
+        List<AccountDTO> accounts = new ArrayList<>(chunk.size());
+        for (AccountView view : query.apply(chunk)) {
+            AccountDTO accountDTO = accountMapper.toDTO(view);
+            balanceLedger.ifPresent(ledger -> ledger.overlay(accountDTO));
+            accounts.add(accountDTO);
+        }
+        return accounts;
+    }
+}
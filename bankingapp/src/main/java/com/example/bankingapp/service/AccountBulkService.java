@@ -0,0 +1,218 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.BulkProperties;
+import com.example.bankingapp.config.ShardingProperties;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.BalanceChangeDTO;
+import com.example.bankingapp.dto.ImportReportDTO;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.example.bankingapp.model.Account;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import and export of accounts in CSV or newline-delimited JSON.
+ * <p>
+ * The import reads one row at a time, validates it against the {@link AccountDTO} constraints and inserts the
+ * valid rows in JDBC batches of {@link BulkProperties#getBatchSize()}, one transaction per batch.
+ * Memory use therefore depends on the batch size only, not on the size of the upload. Opening balances are
+ * journaled in the same transaction; inserts are ordered by table so both tables are still written in batches.
+ * The imported accounts are published on the balance change feed once their batch has committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountBulkService {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    private final AccountService accountService;
+    private final AccountMapper accountMapper;
+    private final TransactionJournal transactionJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BulkProperties properties;
+    private final ShardingProperties shardingProperties;
+    private final Optional<BalanceChangeFeed> balanceChangeFeed;
+
+    private final CsvMapper csvMapper = (CsvMapper) new CsvMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /**
+     * Imports accounts from CSV (with a header line naming the columns) or from newline-delimited JSON.
+     * Rows that cannot be parsed, fail validation or violate a database constraint are skipped and reported.
+     *
+     * @param in          the uploaded rows.
+     * @param contentType {@link #TEXT_CSV} or {@link MediaType#APPLICATION_NDJSON}.
+     * @return the numbers of imported and failed rows with the reasons of the failures.
+     * @throws IllegalArgumentException if the content type is not supported or accounts are sharded.
+     */
+    public ImportReportDTO importAccounts(InputStream in, MediaType contentType) throws IOException {
+        if (shardingProperties.isEnabled()) {
+            throw new IllegalArgumentException("Accounts cannot be imported while they are sharded");
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ObjectReader rowReader;
+        long lineNumber = 0;
+        if (TEXT_CSV.equalsTypeAndSubtype(contentType)) {
+            String header = reader.readLine();
+            lineNumber++;
+            if (header == null) {
+                return new ImportReportDTO();
+            }
+            rowReader = csvReader(header);
+        } else if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(contentType)) {
+            rowReader = objectMapper.readerFor(AccountDTO.class);
+        } else {
+            throw new IllegalArgumentException("Unsupported import format: " + contentType);
+        }
+
+        log.debug("Importing accounts as {} in batches of {}", contentType, properties.getBatchSize());
+        ImportReportDTO report = new ImportReportDTO();
+        List<Row> batch = new ArrayList<>(properties.getBatchSize());
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            AccountDTO accountDTO;
+            try {
+                accountDTO = rowReader.readValue(line);
+            } catch (JsonProcessingException ex) {
+                reject(report, lineNumber, "Malformed row: " + ex.getOriginalMessage());
+                continue;
+            }
+            Set<ConstraintViolation<AccountDTO>> violations = validator.validate(accountDTO);
+            if (!violations.isEmpty()) {
+                reject(report, lineNumber, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            accountDTO.setId(null);
+            batch.add(new Row(lineNumber, accountMapper.toEntity(accountDTO)));
+            if (batch.size() == properties.getBatchSize()) {
+                insert(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch, report);
+        }
+        log.debug("Imported {} accounts, {} rows failed", report.getImported(), report.getFailed());
+        return report;
+    }
+
+    /**
+     * Writes all accounts as CSV with a header line, in ID order and without materializing them.
+     *
+     * @param out the stream to write to.
+     */
+    public void exportCsv(OutputStream out) throws IOException {
+        CsvSchema schema = csvMapper.schemaFor(AccountDTO.class).withHeader();
+        try (SequenceWriter writer = csvMapper.writer(schema).writeValues(out)) {
+            accountService.streamAll(account -> {
+                try {
+                    writer.write(account);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    private ObjectReader csvReader(String header) {
+        CsvSchema.Builder schema = CsvSchema.builder();
+        for (String column : header.split(",")) {
+            schema.addColumn(column.trim());
+        }
+        return csvMapper.readerFor(AccountDTO.class).with(schema.build());
+    }
+
+    /**
+     * Inserts the batch in one transaction. If the batch violates a constraint, e.g. a duplicate account
+     * number, its rows are retried one by one so that only the offending rows are rejected.
+     */
+    private void insert(List<Row> batch, ImportReportDTO report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(properties.getBatchSize());
+                batch.forEach(row -> {
+                    entityManager.persist(row.account());
+                    transactionJournal.appendOpening(row.account());
+                });
+                entityManager.flush();
+                entityManager.clear();
+                batch.forEach(row -> publishCreated(row.account()));
+            });
+            report.setImported(report.getImported() + batch.size());
+        } catch (PersistenceException ex) {
+            log.debug("Batch of {} accounts failed, retrying row by row", batch.size(), ex);
+            for (Row row : batch) {
+                row.account().setId(null);
+                row.account().setJournalSequence(0);
+                row.account().setVersion(0);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        entityManager.persist(row.account());
+                        transactionJournal.appendOpening(row.account());
+                        entityManager.flush();
+                        publishCreated(row.account());
+                    });
+                    report.setImported(report.getImported() + 1);
+                } catch (PersistenceException rowEx) {
+                    reject(report, row.line(), "Account " + row.account().getAccountNumber()
+                            + " violates a database constraint, e.g. the account number already exists");
+                }
+            }
+        }
+    }
+
+    private void publishCreated(Account account) {
+        balanceChangeFeed.ifPresent(feed -> feed.publish(account.getId(), BalanceChangeDTO.Type.CREATED,
+                account.getBalance(), account.getBalance()));
+    }
+
+    private void reject(ImportReportDTO report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < properties.getMaxReportedErrors()) {
+            report.getErrors().add(new ImportReportDTO.RowError(line, message));
+        }
+    }
+
+    private record Row(long line, Account account) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.CacheProperties;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of accounts keyed by ID, with a secondary index from account number to ID.
+ * <p>
+ * Mutations evict the affected entries both immediately and again after their transaction completes.
+ * A load that raced with the transaction and cached the old row is therefore dropped before the mutating
+ * call returns, so a read that starts after a write never sees an older balance.
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics tagged {@code cache=accounts}
+ * and {@code cache=account-numbers}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankingapp.cache", name = "enabled", havingValue = "true")
+@Slf4j
+public class AccountCache {
+
+    private final AccountMapper accountMapper;
+    private final Cache<Long, AccountDTO> accountsById;
+    private final Cache<String, Long> idsByNumber;
+
+    public AccountCache(AccountMapper accountMapper, CacheProperties properties, MeterRegistry meterRegistry) {
+        this.accountMapper = accountMapper;
+        this.accountsById = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.idsByNumber = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, accountsById, "accounts");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByNumber, "account-numbers");
+    }
+
+    /**
+     * Returns the cached account or loads and caches it. The returned DTO is a copy the caller may modify.
+     *
+     * @param id     the ID of the account.
+     * @param loader loads the account on a miss; exceptions are propagated and nothing is cached.
+     */
+    public AccountDTO get(Long id, Function<Long, AccountDTO> loader) {
+        return accountMapper.copy(accountsById.get(id, loader));
+    }
+
+    /**
+     * Resolves an account number to the account ID, loading and caching the mapping on a miss.
+     *
+     * @param accountNumber the account number.
+     * @param loader        resolves the number on a miss; exceptions are propagated and nothing is cached.
+     */
+    public Long resolveId(String accountNumber, Function<String, Long> loader) {
+        return idsByNumber.get(accountNumber, loader);
+    }
+
+    /**
+     * Evicts the account now and, when called inside a transaction, once more after it completes.
+     *
+     * @param id the ID of the changed account.
+     */
+    public void evict(Long id) {
+        accountsById.invalidate(id);
+        afterCompletion(() -> accountsById.invalidate(id));
+    }
+
+    /**
+     * Evicts the mapping of an account number that was changed or deleted, now and after the transaction.
+     *
+     * @param accountNumber the previous account number.
+     */
+    public void evictNumber(String accountNumber) {
+        idsByNumber.invalidate(accountNumber);
+        afterCompletion(() -> idsByNumber.invalidate(accountNumber));
+    }
+
+    private static void afterCompletion(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.ConcurrencyProperties;
+import com.example.bankingapp.config.ConcurrencyProperties.Strategy;
+import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.AccountTransaction;
+import com.example.bankingapp.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Runs read-modify-write transactions on accounts under the configured {@link Strategy}.
+ * <p>
+ * Either way the {@link Account#getVersion() version} check makes a lost update fail instead of going
+ * unnoticed. Since Hibernate writes new journal entries before updated accounts, a lost update usually
+ * surfaces first as a duplicate journal sequence number, which is treated the same way. A transaction that
+ * failed on either is retried after a random backoff whose bound doubles with
+ * every attempt, up to {@link ConcurrencyProperties#getMaxAttempts()} attempts. Only the outermost
+ * transaction is retried; a nested call joins it and leaves the retry to its caller.
+ * Retries and transactions that ran out of attempts are counted as {@code account.concurrency.retries}
+ * and {@code account.concurrency.failures}, tagged with the strategy.
+ */
+@Component
+@Slf4j
+public class AccountConcurrency {
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrencyProperties properties;
+    private final Counter retries;
+    private final Counter failures;
+
+    public AccountConcurrency(AccountRepository accountRepository,
+                              TransactionTemplate transactionTemplate,
+                              ConcurrencyProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        String strategy = properties.getStrategy().name().toLowerCase();
+        this.retries = meterRegistry.counter("account.concurrency.retries", "strategy", strategy);
+        this.failures = meterRegistry.counter("account.concurrency.failures", "strategy", strategy);
+    }
+
+    /**
+     * Reads an account for update: locked under {@link Strategy#PESSIMISTIC}, unlocked but version-checked
+     * on write under {@link Strategy#OPTIMISTIC}. Must be called inside {@link #execute}.
+     *
+     * @param id the ID of the account.
+     * @return the account, or empty if it does not exist.
+     */
+    public Optional<Account> find(Long id) {
+        return properties.getStrategy() == Strategy.PESSIMISTIC
+                ? accountRepository.findByIdForUpdate(id)
+                : accountRepository.findById(id);
+    }
+
+    /**
+     * Reads several accounts for update, ordered by ID, like {@link #find}.
+     *
+     * @param ids the IDs of the accounts.
+     * @return the accounts that exist.
+     */
+    public List<Account> findAll(Collection<Long> ids) {
+        return properties.getStrategy() == Strategy.PESSIMISTIC
+                ? accountRepository.findAllByIdForUpdate(ids)
+                : accountRepository.findByIdInOrderByIdAsc(ids);
+    }
+
+    /**
+     * Runs the action in a transaction, retrying it if it lost an update to a concurrent transaction.
+     *
+     * @param action the transaction body; it may run several times and must not have other side effects.
+     * @return the result of the action.
+     * @throws OptimisticLockingFailureException if the last attempt lost an update as well; a
+     *                                           {@link DataIntegrityViolationException} if it surfaced as a
+     *                                           duplicate journal entry.
+     */
+    public <T> T execute(TransactionCallback<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(action);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException ex) {
+                if (!isLostUpdate(ex)) {
+                    throw ex;
+                }
+                if (attempt >= properties.getMaxAttempts()) {
+                    failures.increment();
+                    log.warn("Account update lost to concurrent updates {} times, giving up", attempt);
+                    throw ex;
+                }
+                retries.increment();
+                log.debug("Account update lost to a concurrent update, retrying (attempt {})", attempt);
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #execute(TransactionCallback)}, for an action without a result.
+     */
+    public void executeWithoutResult(Consumer<TransactionStatus> action) {
+        execute(status -> {
+            action.accept(status);
+            return null;
+        });
+    }
+
+    private static boolean isLostUpdate(RuntimeException ex) {
+        if (ex instanceof OptimisticLockingFailureException) {
+            return true;
+        }
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase().contains(AccountTransaction.SEQUENCE_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backOff(int attempt) {
+        long bound = Math.min(properties.getMaxBackoff().toNanos(),
+                properties.getInitialBackoff().toNanos() << Math.min(attempt - 1, 30));
+        long nanos = ThreadLocalRandom.current().nextLong(bound + 1);
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off from a concurrent account update", ex);
+        }
+    }
+}
@@ -1,41 +1,85 @@
 package com.example.bankingapp.service;
 
 import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.AccountPageDTO;
+import com.example.bankingapp.dto.BalanceChangeDTO;
+import com.example.bankingapp.dto.TransactionPageDTO;
 import com.example.bankingapp.exception.InsufficientFundsException;
 import com.example.bankingapp.mapper.AccountMapper;
 import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.AccountTransaction;
+import com.example.bankingapp.model.AccountView;
+import com.example.bankingapp.model.IdempotencyRecord;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.model.Transfer;
 import com.example.bankingapp.repository.AccountRepository;
+import com.example.bankingapp.repository.AccountTransactionRepository;
+import com.example.bankingapp.repository.IdempotencyRecordRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AccountService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final AccountRepository accountRepository;
+    private final AccountTransactionRepository accountTransactionRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionJournal transactionJournal;
     private final AccountMapper accountMapper;
+    private final AccountConcurrency accountConcurrency;
+    private final Optional<BalanceLedger> balanceLedger;
+    private final Optional<AccountCache> accountCache;
+    private final Optional<GroupCommit> groupCommit;
+    private final Optional<BalanceChangeFeed> balanceChangeFeed;
+    private final Optional<ShardedAccountStore> shardedAccountStore;
+    private final TransactionTemplate transactionTemplate;
 
     /**
-     * Creates a new account.
+     * Creates a new account and journals its opening balance, on the shard of its account number when
+     * accounts are sharded. Only the unsharded path runs in a transaction of the application's data source;
+     * the shard commits its own.
      *
      * @param accountDTO the account data to be created.
      * @return the created account as a DTO.
      */
     public AccountDTO createAccount(AccountDTO accountDTO) {
         log.debug("Creating a new account for {}", accountDTO.getName());
-        Account account = accountMapper.toEntity(accountDTO);
-        return accountMapper.toDTO(accountRepository.save(account));
+        if (shardedAccountStore.isPresent()) {
+            return shardedAccountStore.get().create(accountDTO);
+        }
+        return transactionTemplate.execute(status -> {
+            Account account = accountRepository.save(accountMapper.toEntity(accountDTO));
+            transactionJournal.appendOpening(account);
+            publish(account.getId(), BalanceChangeDTO.Type.CREATED, account.getBalance(), account.getBalance());
+            return accountMapper.toDTO(account);
+        });
     }
 
     /**
-     * Retrieves an account by its ID.
+     * Retrieves an account by its ID, from the {@link AccountCache} when it is enabled.
+     * The account is read as an {@link AccountView} projection rather than a managed entity.
      *
      * @param id the ID of the account to retrieve.
      * @return the account as a DTO.
@@ -43,85 +87,298 @@ public class AccountService {
      */
     public AccountDTO getAccount(Long id) {
         log.debug("Fetching account by ID: {}", id);
-        return accountMapper.toDTO(findAccountById(id));
+        AccountDTO accountDTO = accountCache.isPresent()
+                ? accountCache.get().get(id, this::loadAccount)
+                : loadAccount(id);
+        balanceLedger.ifPresent(ledger -> ledger.overlay(accountDTO));
+        return accountDTO;
+    }
+
+    /**
+     * Resolves an account number to the account ID, through the {@link AccountCache} when it is enabled.
+     *
+     * @param accountNumber the account number.
+     * @return the ID of the account.
+     * @throws EntityNotFoundException if no account has the given number.
+     */
+    public Long resolveId(String accountNumber) {
+        return accountCache.isPresent()
+                ? accountCache.get().resolveId(accountNumber, this::findIdByAccountNumber)
+                : findIdByAccountNumber(accountNumber);
     }
 
     /**
      * Deposits a specified amount into the account.
+     * Applied to the {@link BalanceLedger} when it is enabled, otherwise committed with other operations by the
+     * {@link GroupCommit} when that is enabled, otherwise to the account's shard when accounts are sharded,
+     * otherwise directly to the stored account under the {@link AccountConcurrency} strategy.
      *
      * @param id     the ID of the account.
-     * @param amount the amount to deposit.
+     * @param amount the amount to deposit in minor units.
      * @throws EntityNotFoundException if no account is found with the given ID.
      */
-    @Transactional
-    public void deposit(Long id, Double amount) {
+    public void deposit(Long id, long amount) {
+        deposit(id, amount, null);
+    }
+
+    /**
+     * Deposits a specified amount into the account like {@link #deposit(Long, long)}, inserting the outcome of
+     * an idempotent request in the transaction that commits the deposit.
+     *
+     * @param id                the ID of the account.
+     * @param amount            the amount to deposit in minor units.
+     * @param idempotencyRecord the outcome to insert with the deposit, or {@code null}.
+     * @throws EntityNotFoundException         if no account is found with the given ID.
+     * @throws DataIntegrityViolationException if the idempotency key of the record is already stored.
+     * @throws IllegalStateException           if a record is given while the balance ledger is enabled or
+     *                                         accounts are sharded.
+     */
+    public void deposit(Long id, long amount, IdempotencyRecord idempotencyRecord) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Deposit amount must be greater than zero");
         }
         log.debug("Depositing {} into account {}", amount, id);
-        Account account = findAccountById(id);
-        account.setBalance(account.getBalance() + amount);
-        accountRepository.save(account);
+        if (balanceLedger.isPresent()) {
+            requireNoRecord(idempotencyRecord);
+            balanceLedger.get().deposit(id, amount);
+            publish(id, BalanceChangeDTO.Type.DEPOSIT, amount, null);
+            return;
+        }
+        if (groupCommit.isPresent()) {
+            groupCommit.get().deposit(id, amount, idempotencyRecord);
+            evict(id);
+            publish(id, BalanceChangeDTO.Type.DEPOSIT, amount, null);
+            return;
+        }
+        if (shardedAccountStore.isPresent()) {
+            requireNoRecord(idempotencyRecord);
+            shardedAccountStore.get().change(id, TransactionType.DEPOSIT, amount);
+            evict(id);
+            return;
+        }
+        accountConcurrency.executeWithoutResult(status -> {
+            Account account = findAccountByIdForUpdate(id);
+            account.setBalance(Money.add(account.getBalance(), amount));
+            transactionJournal.append(account, TransactionType.DEPOSIT, amount);
+            accountRepository.save(account);
+            saveRecord(idempotencyRecord);
+            evict(id);
+            publish(id, BalanceChangeDTO.Type.DEPOSIT, amount, account.getBalance());
+        });
     }
 
     /**
      * Withdraws a specified amount from the account.
+     * Applied to the {@link BalanceLedger} when it is enabled, otherwise committed with other operations by the
+     * {@link GroupCommit} when that is enabled, otherwise to the account's shard when accounts are sharded,
+     * otherwise directly to the stored account under the {@link AccountConcurrency} strategy.
      *
      * @param id     the ID of the account.
-     * @param amount the amount to withdraw.
+     * @param amount the amount to withdraw in minor units.
      * @throws EntityNotFoundException    if no account is found with the given ID.
      * @throws InsufficientFundsException if the account has insufficient funds.
      */
-    @Transactional
-    public void withdraw(Long id, Double amount) {
+    public void withdraw(Long id, long amount) {
+        withdraw(id, amount, null);
+    }
+
+    /**
+     * Withdraws a specified amount from the account like {@link #withdraw(Long, long)}, inserting the outcome of
+     * an idempotent request in the transaction that commits the withdrawal.
+     *
+     * @param id                the ID of the account.
+     * @param amount            the amount to withdraw in minor units.
+     * @param idempotencyRecord the outcome to insert with the withdrawal, or {@code null}.
+     * @throws EntityNotFoundException         if no account is found with the given ID.
+     * @throws InsufficientFundsException      if the account has insufficient funds.
+     * @throws DataIntegrityViolationException if the idempotency key of the record is already stored.
+     * @throws IllegalStateException           if a record is given while the balance ledger is enabled or
+     *                                         accounts are sharded.
+     */
+    public void withdraw(Long id, long amount, IdempotencyRecord idempotencyRecord) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Withdrawal amount must be greater than zero");
         }
         log.debug("Withdrawing {} from account {}", amount, id);
-        Account account = findAccountById(id);
-        if (account.getBalance() < amount) {
-            throw new InsufficientFundsException("Insufficient funds");
+        if (balanceLedger.isPresent()) {
+            requireNoRecord(idempotencyRecord);
+            balanceLedger.get().withdraw(id, amount);
+            publish(id, BalanceChangeDTO.Type.WITHDRAWAL, -amount, null);
+            return;
+        }
+        if (groupCommit.isPresent()) {
+            groupCommit.get().withdraw(id, amount, idempotencyRecord);
+            evict(id);
+            publish(id, BalanceChangeDTO.Type.WITHDRAWAL, -amount, null);
+            return;
+        }
+        if (shardedAccountStore.isPresent()) {
+            requireNoRecord(idempotencyRecord);
+            shardedAccountStore.get().change(id, TransactionType.WITHDRAWAL, -amount);
+            evict(id);
+            return;
         }
-        account.setBalance(account.getBalance() - amount);
-        accountRepository.save(account);
+        accountConcurrency.executeWithoutResult(status -> {
+            Account account = findAccountByIdForUpdate(id);
+            if (account.getBalance() < amount) {
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            account.setBalance(Money.subtract(account.getBalance(), amount));
+            transactionJournal.append(account, TransactionType.WITHDRAWAL, -amount);
+            accountRepository.save(account);
+            saveRecord(idempotencyRecord);
+            evict(id);
+            publish(id, BalanceChangeDTO.Type.WITHDRAWAL, -amount, account.getBalance());
+        });
     }
 
     /**
-     * Deletes an account by its ID.
+     * Moves money from one account to another in a single transaction.
+     *
+     * @param transfer the accounts and the amount to move.
+     * @throws EntityNotFoundException    if either account does not exist.
+     * @throws InsufficientFundsException if the debited account has insufficient funds.
+     */
+    public void transfer(Transfer transfer) {
+        transferAll(List.of(transfer));
+    }
+
+    /**
+     * Applies a batch of transfers atomically, in the given order: either all of them are applied or none.
+     * All accounts of the batch are read with a single query in ascending ID order, so concurrent batches
+     * cannot deadlock on their locks, and each account is written once regardless of how many transfers touch it.
+     * When accounts are sharded and the batch spans shards, it is committed on all of them in two phases.
+     *
+     * @param transfers the transfers to apply.
+     * @throws EntityNotFoundException    if any of the accounts does not exist.
+     * @throws InsufficientFundsException if any debited account has insufficient funds at its turn.
+     */
+    public void transferAll(List<Transfer> transfers) {
+        transfers.forEach(AccountService::validateTransfer);
+        log.debug("Applying {} transfers", transfers.size());
+        if (balanceLedger.isPresent()) {
+            balanceLedger.get().transferAll(transfers);
+            for (Transfer transfer : transfers) {
+                publish(transfer.fromId(), BalanceChangeDTO.Type.TRANSFER_OUT, -transfer.amount(), null);
+                publish(transfer.toId(), BalanceChangeDTO.Type.TRANSFER_IN, transfer.amount(), null);
+            }
+            return;
+        }
+        if (shardedAccountStore.isPresent()) {
+            shardedAccountStore.get().transferAll(transfers);
+            for (Transfer transfer : transfers) {
+                evict(transfer.fromId());
+                evict(transfer.toId());
+                publish(transfer.fromId(), BalanceChangeDTO.Type.TRANSFER_OUT, -transfer.amount(), null);
+                publish(transfer.toId(), BalanceChangeDTO.Type.TRANSFER_IN, transfer.amount(), null);
+            }
+            return;
+        }
+        accountConcurrency.executeWithoutResult(status -> {
+            Set<Long> ids = new TreeSet<>();
+            transfers.forEach(transfer -> {
+                ids.add(transfer.fromId());
+                ids.add(transfer.toId());
+            });
+            Map<Long, Account> accounts = new HashMap<>();
+            accountConcurrency.findAll(ids).forEach(account -> accounts.put(account.getId(), account));
+            for (Transfer transfer : transfers) {
+                Account from = lockedAccount(accounts, transfer.fromId());
+                Account to = lockedAccount(accounts, transfer.toId());
+                if (from.getBalance() < transfer.amount()) {
+                    throw new InsufficientFundsException("Insufficient funds");
+                }
+                from.setBalance(Money.subtract(from.getBalance(), transfer.amount()));
+                to.setBalance(Money.add(to.getBalance(), transfer.amount()));
+                transactionJournal.append(from, TransactionType.TRANSFER_OUT, -transfer.amount());
+                transactionJournal.append(to, TransactionType.TRANSFER_IN, transfer.amount());
+                publish(from.getId(), BalanceChangeDTO.Type.TRANSFER_OUT, -transfer.amount(), from.getBalance());
+                publish(to.getId(), BalanceChangeDTO.Type.TRANSFER_IN, transfer.amount(), to.getBalance());
+            }
+            accountRepository.saveAll(accounts.values());
+            accounts.keySet().forEach(this::evict);
+        });
+    }
+
+    /**
+     * Deletes an account by its ID. Like {@link #createAccount}, only the unsharded path runs in a transaction
+     * of the application's data source.
      *
      * @param id the ID of the account to delete.
      * @throws EntityNotFoundException if no account is found with the given ID.
      */
-    @Transactional
     public void deleteAccount(Long id) {
         log.debug("Deleting account with ID: {}", id);
-        Account account = findAccountById(id);
-        accountRepository.delete(account);
+        if (shardedAccountStore.isPresent()) {
+            String accountNumber = shardedAccountStore.get().delete(id);
+            evict(id);
+            accountCache.ifPresent(cache -> cache.evictNumber(accountNumber));
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = findAccountById(id);
+            accountRepository.delete(account);
+            // dropped once the deletion committed
+            balanceLedger.ifPresent(ledger -> ledger.remove(id));
+            evict(id);
+            accountCache.ifPresent(cache -> cache.evictNumber(account.getAccountNumber()));
+            publish(id, BalanceChangeDTO.Type.DELETED, 0, null);
+        });
     }
 
     /**
-     * Updates an existing account.
+     * Updates an existing account. A changed balance is journaled as an adjustment by the difference.
      *
      * @param id         account id
      * @param accountDTO the updated account data.
      * @return the updated account as a DTO.
-     * @throws EntityNotFoundException if no account is found with the given ID.
+     * @throws EntityNotFoundException  if no account is found with the given ID.
+     * @throws IllegalArgumentException if the balance is negative, or, when accounts are sharded, the new account
+     *                                  number belongs on another shard.
      */
-    @Transactional
     public AccountDTO updateAccount(Long id, AccountDTO accountDTO) {
         log.debug("Updating account with ID: {} to new values: {}", id, accountDTO);
-        Account storedAccount = findAccountById(id);
-        if (accountDTO.getName() != null) {
-            storedAccount.setName(accountDTO.getName());
+        if (shardedAccountStore.isPresent()) {
+            ShardedAccountStore.Update update = shardedAccountStore.get().update(id, accountDTO);
+            evict(id);
+            accountCache.ifPresent(cache -> cache.evictNumber(update.previousNumber()));
+            return update.account();
         }
-        if (accountDTO.getBalance() != null) {
-            storedAccount.setBalance(accountDTO.getBalance());
+        Long balance = accountDTO.getBalance() != null ? Money.toMinorUnits(accountDTO.getBalance()) : null;
+        if (balance != null && balance < 0) {
+            throw new IllegalArgumentException("Balance must be zero or positive");
         }
-        if (accountDTO.getAccountNumber() != null) {
-            storedAccount.setAccountNumber(accountDTO.getAccountNumber());
+        // the ledger is not part of the transaction, which may be retried, so it is only set once it committed
+        Long storedBalance = balanceLedger.isPresent() ? null : balance;
+        AccountDTO updatedAccount = accountConcurrency.execute(status -> {
+            Account storedAccount = findAccountByIdForUpdate(id);
+            long change = 0;
+            if (accountDTO.getName() != null) {
+                storedAccount.setName(accountDTO.getName());
+            }
+            if (storedBalance != null && storedBalance != storedAccount.getBalance()) {
+                change = Money.subtract(storedBalance, storedAccount.getBalance());
+                storedAccount.setBalance(storedBalance);
+                transactionJournal.append(storedAccount, TransactionType.ADJUSTMENT, change);
+            }
+            if (accountDTO.getAccountNumber() != null) {
+                String previousNumber = storedAccount.getAccountNumber();
+                accountCache.ifPresent(cache -> cache.evictNumber(previousNumber));
+                storedAccount.setAccountNumber(accountDTO.getAccountNumber());
+            }
+            storedAccount = accountRepository.save(storedAccount);
+            evict(id);
+            if (balanceLedger.isEmpty()) {
+                publish(id, BalanceChangeDTO.Type.UPDATED, change, storedAccount.getBalance());
+            }
+            return accountMapper.toDTO(storedAccount);
+        });
+        if (balanceLedger.isPresent()) {
+            long change = balance != null ? Money.subtract(balance, balanceLedger.get().setBalance(id, balance)) : 0;
+            balanceLedger.get().overlay(updatedAccount);
+            publish(id, BalanceChangeDTO.Type.UPDATED, change, null);
         }
-        storedAccount = accountRepository.save(storedAccount);
-        return accountMapper.toDTO(storedAccount);
+        return updatedAccount;
     }
 
     /**
@@ -139,14 +396,177 @@ public class AccountService {
                 });
     }
 
+    private Account findAccountByIdForUpdate(Long id) {
+        return accountConcurrency.find(id)
+                .orElseThrow(() -> {
+                    log.error("Account not found with ID: {}", id);
+                    return new EntityNotFoundException("Account not found with ID: " + id);
+                });
+    }
+
+    private Long findIdByAccountNumber(String accountNumber) {
+        Optional<Long> id = shardedAccountStore.isPresent()
+                ? shardedAccountStore.get().findIdByAccountNumber(accountNumber)
+                : accountRepository.findIdByAccountNumber(accountNumber);
+        return id.orElseThrow(() -> {
+            log.error("Account not found with number: {}", accountNumber);
+            return new EntityNotFoundException("Account not found with number: " + accountNumber);
+        });
+    }
+
+    private AccountDTO loadAccount(Long id) {
+        Optional<AccountView> account = shardedAccountStore.isPresent()
+                ? shardedAccountStore.get().findViewById(id)
+                : accountRepository.findViewById(id);
+        return accountMapper.toDTO(account.orElseThrow(() -> {
+            log.error("Account not found with ID: {}", id);
+            return new EntityNotFoundException("Account not found with ID: " + id);
+        }));
+    }
+
+    private void saveRecord(IdempotencyRecord idempotencyRecord) {
+        if (idempotencyRecord != null) {
+            // inserted again, never merged, when an optimistic conflict retries the transaction
+            idempotencyRecord.setPersisted(false);
+            idempotencyRecordRepository.save(idempotencyRecord);
+        }
+    }
+
+    private static void requireNoRecord(IdempotencyRecord idempotencyRecord) {
+        // neither the ledger nor the shards share a transaction with the application's data source
+        if (idempotencyRecord != null) {
+            throw new IllegalStateException("Idempotency records cannot be stored with this balance change");
+        }
+    }
+
+    private void evict(Long id) {
+        accountCache.ifPresent(cache -> cache.evict(id));
+    }
+
+    private void publish(Long id, BalanceChangeDTO.Type type, long amount, Long balance) {
+        balanceChangeFeed.ifPresent(feed -> feed.publish(id, type, amount, balance));
+    }
+
+    private static void validateTransfer(Transfer transfer) {
+        if (transfer.amount() <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be greater than zero");
+        }
+        if (transfer.fromId().equals(transfer.toId())) {
+            throw new IllegalArgumentException("Cannot transfer to the same account: " + transfer.fromId());
+        }
+    }
+
+    private static Account lockedAccount(Map<Long, Account> accounts, Long id) {
+        Account account = accounts.get(id);
+        if (account == null) {
+            log.error("Account not found with ID: {}", id);
+            throw new EntityNotFoundException("Account not found with ID: " + id);
+        }
+        return account;
+    }
+
     /**
-     * Retrieves all accounts.
+     * Retrieves one page of accounts ordered by ID, seeking past the cursor instead of skipping rows.
+     * When accounts are sharded, every shard is read in parallel and the pages are merged.
      *
-     * @return a list of all accounts as DTOs.
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page.
+     * @param size   the maximum number of accounts on the page.
+     * @return the page with the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor is malformed or the size is out of range.
      */
-    public List<AccountDTO> getAll() {
-        List<Account> list = new ArrayList<>();
-        accountRepository.findAll().forEach(list::add);
-        return accountMapper.toDTO(list);
+    @Transactional(readOnly = true)
+    public AccountPageDTO getPage(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long afterId = cursor == null ? 0 : decodeCursor(cursor);
+        log.debug("Fetching {} accounts after ID: {}", size, afterId);
+        List<AccountView> accounts = shardedAccountStore.isPresent()
+                ? shardedAccountStore.get().findViewsByIdGreaterThan(afterId, size + 1)
+                : accountRepository.findViewsByIdGreaterThan(afterId, Limit.of(size + 1));
+        boolean hasNext = accounts.size() > size;
+        if (hasNext) {
+            accounts = accounts.subList(0, size);
+        }
+        List<AccountDTO> content = accountMapper.toDTOs(accounts);
+        balanceLedger.ifPresent(ledger -> content.forEach(ledger::overlay));
+        String nextCursor = hasNext ? encodeCursor(accounts.get(size - 1).id()) : null;
+        return new AccountPageDTO(content, nextCursor);
+    }
+
+    /**
+     * Retrieves one page of the journal of an account ordered by sequence number.
+     * While the balance ledger is enabled, the journal holds one net entry per write-behind flush
+     * instead of the individual operations.
+     *
+     * @param id     the ID of the account.
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page.
+     * @param size   the maximum number of entries on the page.
+     * @return the page with the cursor of the next page.
+     * @throws EntityNotFoundException  if no account is found with the given ID.
+     * @throws IllegalArgumentException if the cursor is malformed or the size is out of range.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPageDTO getTransactions(Long id, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        boolean exists = shardedAccountStore.isPresent()
+                ? shardedAccountStore.get().existsById(id)
+                : accountRepository.existsById(id);
+        if (!exists) {
+            log.error("Account not found with ID: {}", id);
+            throw new EntityNotFoundException("Account not found with ID: " + id);
+        }
+        long afterSequence = cursor == null ? 0 : decodeCursor(cursor);
+        log.debug("Fetching {} journal entries of account {} after sequence number: {}", size, id, afterSequence);
+        List<AccountTransaction> entries = shardedAccountStore.isPresent()
+                ? shardedAccountStore.get().findTransactions(id, afterSequence, size + 1)
+                : accountTransactionRepository
+                        .findByAccountIdAndSequenceNumberGreaterThanOrderByAccountIdAscSequenceNumberAsc(
+                                id, afterSequence, Limit.of(size + 1));
+        boolean hasNext = entries.size() > size;
+        if (hasNext) {
+            entries = entries.subList(0, size);
+        }
+        String nextCursor = hasNext ? encodeCursor(entries.get(size - 1).getSequenceNumber()) : null;
+        return new TransactionPageDTO(accountMapper.toTransactionDTO(entries), nextCursor);
+    }
+
+    /**
+     * Passes every account to the consumer in ID order without materializing the whole table.
+     * Rows are read as {@link AccountView} projections, which the persistence context does not keep,
+     * so memory stays constant regardless of the row count. When accounts are sharded, the shards are read in
+     * parallel and merged in ID order.
+     *
+     * @param consumer receives the accounts as DTOs, one at a time.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<AccountDTO> consumer) {
+        log.debug("Streaming all accounts");
+        if (shardedAccountStore.isPresent()) {
+            shardedAccountStore.get().forEachOrderedById(account -> consumer.accept(accountMapper.toDTO(account)));
+            return;
+        }
+        try (Stream<AccountView> accounts = accountRepository.streamAllViewsOrderedById()) {
+            accounts.forEach(account -> {
+                AccountDTO accountDTO = accountMapper.toDTO(account);
+                balanceLedger.ifPresent(ledger -> ledger.overlay(accountDTO));
+                consumer.accept(accountDTO);
+            });
+        }
+    }
+
+    private static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, ex);
+        }
     }
 }
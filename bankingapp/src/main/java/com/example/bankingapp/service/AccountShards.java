@@ -0,0 +1,240 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The databases that hold the accounts while they are sharded: {@link ShardingProperties#getCount()} databases,
+ * each with its own connection pool, published as {@code hikaricp.connections.*} with the pool
+ * {@code account-shard-<index>}, and the full schema, migrated by Flyway on startup.
+ * <p>
+ * An account lives on the shard its account number hashes to. Its ID is drawn from that shard's
+ * {@code account_seq}, multiplied by the shard count and offset by the shard index, so IDs are unique across
+ * shards and the shard of an account follows from its ID alone.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankingapp.sharding", name = "enabled", havingValue = "true")
+@Slf4j
+public class AccountShards implements DisposableBean {
+
+    /**
+     * Number of IDs handed out per sequence call; the increment of the sequences in {@code V1__baseline.sql}.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final List<Shard> shards = new ArrayList<>();
+    private final ExecutorService executor;
+
+    public AccountShards(ShardingProperties properties, DataSourceProperties dataSourceProperties,
+                         MeterRegistry meterRegistry) {
+        if (properties.getCount() < 1) {
+            throw new IllegalStateException("At least one shard is required");
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "account-shard-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int index = 0; index < properties.getCount(); index++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(properties.getUrl().replace("{shard}", String.valueOf(index)))
+                    .username(dataSourceProperties.determineUsername())
+                    .password(dataSourceProperties.determinePassword())
+                    .build();
+            dataSource.setPoolName("account-shard-" + index);
+            dataSource.setMaximumPoolSize(properties.getPoolSize());
+            dataSource.setMetricRegistry(meterRegistry);
+            shards.add(new Shard(index, properties.getCount(), dataSource));
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration", "classpath:db/shard")
+                    .load()
+                    .migrate();
+        }
+        log.info("Accounts are stored in {} shards", shards.size());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        shards.forEach(shard -> shard.dataSource.close());
+    }
+
+    /**
+     * Returns the number of shards.
+     */
+    public int count() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the shard with the given index.
+     */
+    public Shard get(int index) {
+        return shards.get(index);
+    }
+
+    /**
+     * Returns the shard that holds the account with the given ID.
+     */
+    public Shard ofAccount(long id) {
+        return shards.get(Math.floorMod(id, shards.size()));
+    }
+
+    /**
+     * Returns the shard that holds, or would hold, the account with the given number.
+     */
+    public Shard ofAccountNumber(String accountNumber) {
+        return shards.get(Math.floorMod(accountNumber.hashCode(), shards.size()));
+    }
+
+    /**
+     * Runs the task on every shard in parallel and returns the results in shard order.
+     * The first failure of a task is rethrown once all tasks have finished.
+     *
+     * @param task the work to do on one shard.
+     * @return the result of every shard.
+     */
+    public <T> List<T> scatter(Function<Shard, T> task) {
+        if (shards.size() == 1) {
+            return List.of(task.apply(shards.get(0)));
+        }
+        List<CompletableFuture<T>> results = new ArrayList<>(shards.size());
+        for (int i = 1; i < shards.size(); i++) {
+            Shard shard = shards.get(i);
+            results.add(CompletableFuture.supplyAsync(() -> task.apply(shard), executor));
+        }
+        // the calling thread takes the first shard itself
+        CompletableFuture<T> first;
+        try {
+            first = CompletableFuture.completedFuture(task.apply(shards.get(0)));
+        } catch (RuntimeException ex) {
+            first = CompletableFuture.failedFuture(ex);
+        }
+        results.add(0, first);
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).exceptionally(ex -> null).join();
+        return results.stream().map(AccountShards::join).toList();
+    }
+
+    /**
+     * Runs the task on the given shard without waiting for it.
+     */
+    <T> CompletableFuture<T> submit(Shard shard, Function<Shard, T> task) {
+        return CompletableFuture.supplyAsync(() -> task.apply(shard), executor);
+    }
+
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * One shard database with its pool, its transactions and its ID allocation.
+     */
+    public static final class Shard {
+
+        private final int index;
+        private final int count;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+        private final IdBlock accountIds;
+        private final IdBlock transactionIds;
+
+        private Shard(int index, int count, HikariDataSource dataSource) {
+            this.index = index;
+            this.count = count;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            this.accountIds = new IdBlock("account_seq");
+            this.transactionIds = new IdBlock("account_transaction_seq");
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        public JdbcTemplate jdbcTemplate() {
+            return jdbcTemplate;
+        }
+
+        public TransactionTemplate transactionTemplate() {
+            return transactionTemplate;
+        }
+
+        /**
+         * Returns a new account ID, which maps back to this shard.
+         *
+         * @param jdbcTemplate the template to call the sequence with when a new block is needed; that of the
+         *                     caller's connection, so a caller holding a connection never waits for a second one.
+         */
+        public long nextAccountId(JdbcTemplate jdbcTemplate) {
+            return Math.addExact(Math.multiplyExact(accountIds.next(jdbcTemplate), count), index);
+        }
+
+        /**
+         * Returns a new journal entry ID, unique within this shard.
+         *
+         * @param jdbcTemplate the template to call the sequence with when a new block is needed.
+         */
+        public long nextTransactionId(JdbcTemplate jdbcTemplate) {
+            return transactionIds.next(jdbcTemplate);
+        }
+    }
+
+    /**
+     * Hands out the IDs of one sequence in blocks of {@value #ID_BLOCK_SIZE}, so only every
+     * {@value #ID_BLOCK_SIZE}th ID costs a sequence call.
+     */
+    private static final class IdBlock {
+
+        private final String sequence;
+        private long next;
+        private long limit;
+
+        private IdBlock(String sequence) {
+            this.sequence = sequence;
+        }
+
+        synchronized long next(JdbcTemplate jdbcTemplate) {
+            if (next == limit) {
+                next = jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+                limit = next + ID_BLOCK_SIZE;
+            }
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.WarmupProperties;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.AccountPageDTO;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Exercises the account read paths once the context is refreshed, so that lazily created beans, Hibernate
+ * query plans, Jackson serializers and the JIT are ready before the first real request. Runners complete before
+ * the application publishes its readiness, so no traffic is routed to it while it warms up.
+ * <p>
+ * Only reads are issued, so the warmup leaves neither accounts nor journal entries behind; on an empty database
+ * the lookups by ID and number have nothing to read and only the page query and serialization are warmed up.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankingapp.warmup", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class AccountWarmup implements ApplicationRunner {
+
+    private final AccountService accountService;
+    private final AccountMapper accountMapper;
+    private final ObjectMapper objectMapper;
+    private final WarmupProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) throws JsonProcessingException {
+        long started = System.nanoTime();
+        AccountDTO sample = new AccountDTO();
+        sample.setAccountNumber("0000000000");
+        sample.setName("Warmup");
+        sample.setBalance(BigDecimal.ZERO);
+        for (int i = 0; i < properties.getIterations(); i++) {
+            objectMapper.writeValueAsBytes(accountMapper.toDTO(accountMapper.toEntity(sample)));
+            AccountPageDTO page = accountService.getPage(null, 10);
+            objectMapper.writeValueAsBytes(page);
+            for (AccountDTO account : page.getContent()) {
+                objectMapper.writeValueAsBytes(accountService.getAccount(
+                        accountService.resolveId(account.getAccountNumber())));
+            }
+        }
+        log.info("Warmed up the account read paths with {} iterations in {} ms", properties.getIterations(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.FeedProperties;
+import com.example.bankingapp.dto.BalanceChangeDTO;
+import com.example.bankingapp.model.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process feed of committed account changes, so that downstream systems follow balances instead of polling
+ * all accounts.
+ * <p>
+ * Changes are published after the transaction that made them commits, and dropped with it on a rollback. A change
+ * takes its sequence number just before the commit, while the transaction still holds the account it changed, and
+ * fills its slot in a ring buffer of the last {@link FeedProperties#getCapacity()} changes once the transaction
+ * completed. Two changes of one account therefore appear in the order they were committed, and a subscriber never
+ * sees the balance of an account go back. Subscribers wait for the next slot to be filled, so a slow commit holds
+ * back the changes after it, and a rolled back change leaves a gap in the sequence numbers. Reserving a sequence
+ * number is a single atomic increment, so writers never wait for subscribers. Every subscriber has its own cursor
+ * into the ring and its own delivery thread, which writes all changes available at once and waits for the next ones
+ * otherwise. A subscriber that falls so far behind that its next change was overwritten, e.g. because its client
+ * reads slowly, receives a {@link BalanceChangeDTO.Type#CATCH_UP} change and continues from the latest change.
+ * <p>
+ * Each change is serialized once, by the first subscriber that delivers it, and shared by all others.
+ * <p>
+ * Changes are published by every path that writes balances: {@link AccountService}, the bulk import of
+ * {@link AccountBulkService}, the postings of {@link InterestAccrualService}, the balances rebuilt by
+ * {@link JournalReplayService} and the shard transactions of {@link ShardedAccountStore}. Each publishes inside
+ * the transaction that writes the balance. Changes made outside a transaction of their account, by the balance
+ * ledger, the group commit and cross-shard transfers, are published without a balance.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankingapp.feed", name = "enabled", havingValue = "true")
+@Slf4j
+public class BalanceChangeFeed {
+
+    public static final MediaType TEXT_EVENT_STREAM_UTF8 = new MediaType(MediaType.TEXT_EVENT_STREAM,
+            StandardCharsets.UTF_8);
+
+    private static final int MAX_BATCH = 1024;
+    private static final byte[] SSE_HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NDJSON_HEARTBEAT = "\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final FeedProperties properties;
+    private final ObjectWriter writer;
+    private final Counter catchUps;
+
+    private final AtomicReferenceArray<Change> ring;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong(1);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService delivery;
+
+    public BalanceChangeFeed(FeedProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.writer = objectMapper.writerFor(BalanceChangeDTO.class);
+        this.catchUps = meterRegistry.counter("balance.feed.catch.up");
+        int capacity = Integer.highestOneBit(Math.max(properties.getCapacity() - 1, 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        AtomicInteger threads = new AtomicInteger();
+        this.delivery = new ThreadPoolExecutor(0, properties.getMaxSubscribers(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "balance-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("balance.feed.subscribers", subscriptions, Set::size);
+    }
+
+    @PreDestroy
+    void close() {
+        subscriptions.forEach(Subscription::close);
+        delivery.shutdownNow();
+    }
+
+    /**
+     * Publishes a change of an account once the current transaction commits, or right away outside a transaction.
+     * Inside a transaction the change is numbered just before the commit, so it must be published by the
+     * transaction that holds the account while writing it.
+     *
+     * @param accountId the ID of the account.
+     * @param type      the kind of change.
+     * @param amount    the signed change of the balance in minor units.
+     * @param balance   the balance after the change in minor units, or {@code null} if it is not known.
+     */
+    public void publish(Long accountId, BalanceChangeDTO.Type type, long amount, Long balance) {
+        BalanceChangeDTO change = new BalanceChangeDTO(0, accountId, type, Money.toMajorUnits(amount),
+                balance != null ? Money.toMajorUnits(balance) : null, Instant.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                private long sequence;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    sequence = nextSequence.getAndIncrement();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (sequence != 0) {
+                        fill(sequence, status == STATUS_COMMITTED ? change : null);
+                    }
+                }
+            });
+        } else {
+            fill(nextSequence.getAndIncrement(), change);
+        }
+    }
+
+    /**
+     * @return the sequence number of the latest change, which may still be committing, or {@code 0} before the
+     * first one.
+     */
+    public long latestSequence() {
+        return nextSequence.get() - 1;
+    }
+
+    /**
+     * Subscribes to the changes after the given sequence number.
+     *
+     * @param after      the sequence number of the last change already seen, or {@code null} for new changes only.
+     * @param accountIds the accounts to follow, or {@code null} or empty for all accounts.
+     * @return the subscription.
+     */
+    public Subscription subscribe(Long after, Set<Long> accountIds) {
+        long cursor = after != null ? Math.max(after, 0) + 1 : nextSequence.get();
+        return new Subscription(cursor, accountIds == null || accountIds.isEmpty() ? null : Set.copyOf(accountIds));
+    }
+
+    /**
+     * Streams the changes after the given sequence number to an HTTP client, as server-sent events with the
+     * sequence number as event ID, or as newline-delimited JSON.
+     *
+     * @param after      the sequence number of the last change already seen, or {@code null} for new changes only.
+     * @param accountIds the accounts to follow, or {@code null} or empty for all accounts.
+     * @param ndjson     whether to write newline-delimited JSON instead of server-sent events.
+     * @return the emitter the changes are written to.
+     * @throws RejectedExecutionException if the maximum number of subscribers is reached.
+     */
+    public ResponseBodyEmitter stream(Long after, Set<Long> accountIds, boolean ndjson) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(properties.getTimeout().toMillis());
+        Subscription subscription = subscribe(after, accountIds);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(() -> {
+            subscription.close();
+            emitter.complete();
+        });
+        emitter.onError(ex -> subscription.close());
+        MediaType mediaType = ndjson ? MediaType.APPLICATION_NDJSON : TEXT_EVENT_STREAM_UTF8;
+        try {
+            delivery.execute(() -> deliver(subscription, emitter, ndjson, mediaType));
+        } catch (RejectedExecutionException ex) {
+            subscription.close();
+            throw new RejectedExecutionException("Too many balance change subscribers, retry later", ex);
+        }
+        return emitter;
+    }
+
+    private void deliver(Subscription subscription, ResponseBodyEmitter emitter, boolean ndjson, MediaType mediaType) {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(8192);
+        try {
+            while (!subscription.closed) {
+                List<Change> changes = subscription.next(MAX_BATCH, properties.getHeartbeat().toNanos());
+                if (subscription.closed) {
+                    break;
+                }
+                if (changes.isEmpty()) {
+                    emitter.send(ndjson ? NDJSON_HEARTBEAT : SSE_HEARTBEAT, mediaType);
+                    continue;
+                }
+                batch.reset();
+                for (Change change : changes) {
+                    if (ndjson) {
+                        batch.write(change.json());
+                        batch.write('\n');
+                    } else {
+                        batch.write(("id:" + change.sequence() + "\nevent:" + change.dto.getType() + "\ndata:")
+                                .getBytes(StandardCharsets.US_ASCII));
+                        batch.write(change.json());
+                        batch.write('\n');
+                        batch.write('\n');
+                    }
+                }
+                emitter.send(batch.toByteArray(), mediaType);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Balance change subscriber disconnected", ex);
+            emitter.completeWithError(ex);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to deliver balance changes", ex);
+            emitter.completeWithError(ex);
+        } finally {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Fills the slot of a reserved sequence number with the change, or with a gap if it was rolled back. A slot
+     * already taken by a later change, because the ring wrapped around while the transaction committed, is left
+     * alone; subscribers still waiting for the change catch up.
+     */
+    private void fill(long sequence, BalanceChangeDTO dto) {
+        if (dto != null) {
+            dto.setSequence(sequence);
+        }
+        Change change = new Change(sequence, dto);
+        int slot = (int) (sequence & mask);
+        Change previous;
+        do {
+            previous = ring.get(slot);
+            if (previous != null && previous.sequence > sequence) {
+                return;
+            }
+        } while (!ring.compareAndSet(slot, previous, change));
+        if (waiting.get() > 0) {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Published change together with its JSON form, serialized on first use.
+     */
+    public final class Change {
+
+        private final long sequence;
+        /**
+         * The change, or {@code null} for the gap a rolled back change left.
+         */
+        private final BalanceChangeDTO dto;
+        private volatile byte[] json;
+
+        private Change(long sequence, BalanceChangeDTO dto) {
+            this.sequence = sequence;
+            this.dto = dto;
+        }
+
+        public long sequence() {
+            return sequence;
+        }
+
+        public BalanceChangeDTO dto() {
+            return dto;
+        }
+
+        public byte[] json() {
+            byte[] bytes = json;
+            if (bytes == null) {
+                try {
+                    bytes = writer.writeValueAsBytes(dto);
+                } catch (JsonProcessingException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                json = bytes;
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Cursor of one subscriber into the feed.
+     */
+    public final class Subscription {
+
+        private final Set<Long> accountIds;
+        private long cursor;
+        private volatile boolean closed;
+
+        private Subscription(long cursor, Set<Long> accountIds) {
+            this.cursor = cursor;
+            this.accountIds = accountIds;
+            subscriptions.add(this);
+        }
+
+        /**
+         * Takes the next changes of the followed accounts, waiting for them if there are none yet.
+         * If the next change was overwritten before it was taken, a {@link BalanceChangeDTO.Type#CATCH_UP} change
+         * is returned alone and the cursor moves past the latest change.
+         *
+         * @param max          the maximum number of changes to take.
+         * @param timeoutNanos how long to wait for changes.
+         * @return the changes in sequence order; empty if none arrived in time or the subscription was closed.
+         */
+        public List<Change> next(int max, long timeoutNanos) {
+            List<Change> changes = new ArrayList<>();
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (!closed) {
+                while (changes.size() < max) {
+                    Change change = ring.get((int) (cursor & mask));
+                    if (change == null || change.sequence() < cursor) {
+                        break;
+                    }
+                    if (change.sequence() > cursor) {
+                        if (changes.isEmpty()) {
+                            changes.add(catchUp());
+                        }
+                        return changes;
+                    }
+                    cursor++;
+                    if (change.dto != null
+                            && (accountIds == null || accountIds.contains(change.dto.getAccountId()))) {
+                        changes.add(change);
+                    }
+                }
+                long remaining = deadline - System.nanoTime();
+                if (!changes.isEmpty() || remaining <= 0) {
+                    return changes;
+                }
+                await(remaining);
+            }
+            return changes;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        public void close() {
+            if (!closed) {
+                closed = true;
+                subscriptions.remove(this);
+                lock.lock();
+                try {
+                    published.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private Change catchUp() {
+            catchUps.increment();
+            long latest = latestSequence();
+            log.debug("Balance change subscriber fell behind at {}, catching up to {}", cursor, latest);
+            cursor = latest + 1;
+            return new Change(latest, new BalanceChangeDTO(latest, null, BalanceChangeDTO.Type.CATCH_UP, null, null,
+                    Instant.now()));
+        }
+
+        private void await(long nanos) {
+            lock.lock();
+            waiting.incrementAndGet();
+            try {
+                Change change = ring.get((int) (cursor & mask));
+                if (!closed && (change == null || change.sequence() < cursor)) {
+                    published.awaitNanos(nanos);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                close();
+            } finally {
+                waiting.decrementAndGet();
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.LedgerProperties;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.model.Transfer;
+import com.example.bankingapp.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory ledger holding the balances of active accounts in minor units.
+ * <p>
+ * Deposits and withdrawals are applied with a compare-and-set on the account's balance, so concurrent
+ * operations on the same account never block each other and never lose updates. The accumulated change
+ * of every touched account is written back to the database by a periodic write-behind flush, which also
+ * journals it as one {@link TransactionType#NET_CHANGE} entry per account.
+ * <p>
+ * An account stays in the ledger while it is used. Once its changes are flushed and it was not used for
+ * {@link LedgerProperties#getIdleTimeout()}, the flush drops it, and its next operation loads it again from the
+ * database. Every operation counts itself in and out of the account's entry, and an entry is only dropped
+ * while no operation is inside it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankingapp.ledger", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceLedger {
+
+    private final AccountRepository accountRepository;
+    private final TransactionJournal transactionJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final LedgerProperties properties;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> dirty = new ConcurrentLinkedQueue<>();
+
+    private ScheduledFuture<?> flushTask;
+    private long lastSweep = System.nanoTime();
+
+    @PostConstruct
+    void startFlushing() {
+        flushTask = taskScheduler.scheduleWithFixedDelay(this::flush, properties.getFlushInterval());
+    }
+
+    @PreDestroy
+    void stopFlushing() {
+        flushTask.cancel(false);
+        flush();
+    }
+
+    /**
+     * Deposits a specified amount into the account.
+     *
+     * @param id     the ID of the account.
+     * @param amount the amount to deposit in minor units.
+     * @throws EntityNotFoundException if no account is found with the given ID.
+     */
+    public void deposit(Long id, long amount) {
+        Entry entry = acquire(id);
+        try {
+            long current;
+            do {
+                current = entry.balance.get();
+            } while (!entry.balance.compareAndSet(current, Money.add(current, amount)));
+            markDirty(entry, amount);
+        } finally {
+            entry.release();
+        }
+    }
+
+    /**
+     * Withdraws a specified amount from the account.
+     *
+     * @param id     the ID of the account.
+     * @param amount the amount to withdraw in minor units.
+     * @throws EntityNotFoundException    if no account is found with the given ID.
+     * @throws InsufficientFundsException if the account has insufficient funds.
+     */
+    public void withdraw(Long id, long amount) {
+        Entry entry = acquire(id);
+        try {
+            long current;
+            do {
+                current = entry.balance.get();
+                if (current < amount) {
+                    throw new InsufficientFundsException("Insufficient funds");
+                }
+            } while (!entry.balance.compareAndSet(current, current - amount));
+            markDirty(entry, -amount);
+        } finally {
+            entry.release();
+        }
+    }
+
+    /**
+     * Applies a batch of transfers as if in the given order. Every account is resolved before any money moves.
+     * <p>
+     * The batch is applied as one net change per account, split into a debit and a credit: the debit is the
+     * lowest point the account's running balance reaches over the batch, so a transfer that would overdraw an
+     * account at its turn fails the batch as it would in order. All debits are withdrawn first, in ID order and
+     * each with a compare-and-set that never takes a balance below zero; the credits are only deposited once
+     * every debit succeeded. A failed debit gives the debits withdrawn before it back, which can only raise
+     * balances, so concurrent operations never see money that the batch might still take back.
+     *
+     * @param transfers the transfers to apply.
+     * @throws EntityNotFoundException    if any of the accounts does not exist.
+     * @throws InsufficientFundsException if any debited account has insufficient funds at its turn.
+     */
+    public void transferAll(List<Transfer> transfers) {
+        Map<Long, NetChange> changes = new TreeMap<>();
+        for (Transfer transfer : transfers) {
+            entry(transfer.fromId());
+            entry(transfer.toId());
+            changes.computeIfAbsent(transfer.fromId(), id -> new NetChange()).add(-transfer.amount());
+            changes.computeIfAbsent(transfer.toId(), id -> new NetChange()).add(transfer.amount());
+        }
+        List<Map.Entry<Long, NetChange>> debited = new ArrayList<>(changes.size());
+        try {
+            for (Map.Entry<Long, NetChange> change : changes.entrySet()) {
+                if (change.getValue().debit() > 0) {
+                    withdraw(change.getKey(), change.getValue().debit());
+                    debited.add(change);
+                }
+            }
+        } catch (RuntimeException ex) {
+            debited.forEach(change -> deposit(change.getKey(), change.getValue().debit()));
+            throw ex;
+        }
+        changes.forEach((id, change) -> {
+            if (change.credit() > 0) {
+                deposit(id, change.credit());
+            }
+        });
+    }
+
+    /**
+     * Replaces the balance of the account, e.g. when it is set through an account update.
+     *
+     * @param id      the ID of the account.
+     * @param balance the new balance in minor units.
+     * @return the balance it replaced, in minor units.
+     * @throws EntityNotFoundException if no account is found with the given ID.
+     */
+    public long setBalance(Long id, long balance) {
+        Entry entry = acquire(id);
+        try {
+            long previous = entry.balance.getAndSet(balance);
+            markDirty(entry, balance - previous);
+            return previous;
+        } finally {
+            entry.release();
+        }
+    }
+
+    /**
+     * Replaces the balance of the DTO with the ledger balance if the account is held by the ledger,
+     * since the stored balance may not include changes that are still waiting for the write-behind flush.
+     *
+     * @param accountDTO the account read from the database.
+     */
+    public void overlay(AccountDTO accountDTO) {
+        Entry entry = entries.get(accountDTO.getId());
+        if (entry != null) {
+            accountDTO.setBalance(Money.toMajorUnits(entry.balance.get()));
+        }
+    }
+
+    /**
+     * Drops the account from the ledger, e.g. after it was deleted, discarding changes not flushed yet.
+     * Inside a transaction the account is only dropped once the transaction committed, so a rolled back
+     * deletion keeps it.
+     *
+     * @param id the ID of the account.
+     */
+    public void remove(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(id);
+                }
+            });
+        } else {
+            drop(id);
+        }
+    }
+
+    /**
+     * Returns the number of accounts held by the ledger.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the pending balance changes of all dirty accounts to the database, and then drops the accounts
+     * that stayed idle since the previous sweep, once per {@link LedgerProperties#getIdleTimeout()}. Flushes
+     * do not overlap, so an account is never dropped while its last changes are still being written.
+     *
+     * @return the number of accounts written.
+     */
+    public synchronized int flush() {
+        int flushed = 0;
+        List<Entry> batch = new ArrayList<>();
+        Entry entry;
+        while ((entry = dirty.poll()) != null) {
+            batch.add(entry);
+            if (batch.size() == properties.getFlushBatchSize()) {
+                flushed += write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushed += write(batch);
+        }
+        long now = System.nanoTime();
+        if (now - lastSweep >= properties.getIdleTimeout().toNanos()) {
+            lastSweep = now;
+            sweep();
+        }
+        return flushed;
+    }
+
+    /**
+     * Drops the accounts that were not used since the previous sweep and have no changes left to flush.
+     */
+    private void sweep() {
+        int dropped = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.used) {
+                entry.used = false;
+            } else if (entry.retire()) {
+                entries.remove(entry.id, entry);
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.debug("Dropped {} idle accounts from the ledger, {} remain", dropped, entries.size());
+        }
+    }
+
+    private void drop(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            entry.pending.set(0);
+        }
+    }
+
+    private int write(List<Entry> batch) {
+        long[] deltas = new long[batch.size()];
+        Map<Long, Long> deltasById = new HashMap<>();
+        for (int i = 0; i < deltas.length; i++) {
+            Entry entry = batch.get(i);
+            entry.queued.set(false);
+            deltas[i] = entry.pending.getAndSet(0);
+            if (deltas[i] != 0) {
+                deltasById.put(entry.id, deltas[i]);
+            }
+        }
+        if (deltasById.isEmpty()) {
+            return batch.size();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Account account : accountRepository.findAllByIdForUpdate(deltasById.keySet())) {
+                    long delta = deltasById.get(account.getId());
+                    account.setBalance(Money.add(account.getBalance(), delta));
+                    transactionJournal.append(account, TransactionType.NET_CHANGE, delta);
+                }
+            });
+            return batch.size();
+        } catch (RuntimeException ex) {
+            log.error("Failed to flush {} ledger entries, retrying with the next flush", batch.size(), ex);
+            for (int i = 0; i < deltas.length; i++) {
+                markDirty(batch.get(i), deltas[i]);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the entry of the account, loading it if needed, with the caller counted in; the caller must
+     * {@link Entry#release() release} it.
+     */
+    private Entry acquire(Long id) {
+        while (true) {
+            Entry entry = entry(id);
+            if (entry.enter()) {
+                return entry;
+            }
+            // the sweep is dropping the entry or putting it back
+            Thread.onSpinWait();
+        }
+    }
+
+    private Entry entry(Long id) {
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            return entry;
+        }
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Account not found with ID: {}", id);
+                    return new EntityNotFoundException("Account not found with ID: " + id);
+                });
+        Entry loaded = new Entry(id, account.getBalance());
+        Entry existing = entries.putIfAbsent(id, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private void markDirty(Entry entry, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        entry.pending.addAndGet(delta);
+        if (!entry.queued.get() && entry.queued.compareAndSet(false, true)) {
+            dirty.add(entry);
+        }
+    }
+
+    /**
+     * The running change of one account over a transfer batch.
+     */
+    private static final class NetChange {
+
+        private long net;
+        private long lowest;
+
+        private void add(long amount) {
+            net = Money.add(net, amount);
+            lowest = Math.min(lowest, net);
+        }
+
+        /**
+         * Returns the amount to withdraw before any credit, enough to cover the account at every transfer.
+         */
+        private long debit() {
+            return -lowest;
+        }
+
+        /**
+         * Returns the amount to deposit once every debit of the batch succeeded.
+         */
+        private long credit() {
+            return net - lowest;
+        }
+    }
+
+    private static final class Entry {
+
+        /**
+         * Value of {@link #users} once the entry is being dropped.
+         */
+        private static final int RETIRED = -1;
+
+        private final Long id;
+        private final AtomicLong balance;
+        private final AtomicLong pending = new AtomicLong();
+        private final AtomicBoolean queued = new AtomicBoolean();
+        /**
+         * Number of operations inside the entry, or {@link #RETIRED}.
+         */
+        private final AtomicInteger users = new AtomicInteger();
+        /**
+         * Whether the entry was used since the previous sweep.
+         */
+        private volatile boolean used = true;
+
+        private Entry(Long id, long balance) {
+            this.id = id;
+            this.balance = new AtomicLong(balance);
+        }
+
+        /**
+         * Counts an operation in, unless the entry is being dropped.
+         */
+        private boolean enter() {
+            int current;
+            do {
+                current = users.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+            } while (!users.compareAndSet(current, current + 1));
+            used = true;
+            return true;
+        }
+
+        private void release() {
+            users.decrementAndGet();
+        }
+
+        /**
+         * Marks the entry as being dropped if no operation is inside it and all of its changes are flushed.
+         */
+        private boolean retire() {
+            if (!users.compareAndSet(0, RETIRED)) {
+                return false;
+            }
+            // an operation that left before the entry was retired may have changed it
+            if (pending.get() != 0 || queued.get()) {
+                users.set(0);
+                return false;
+            }
+            return true;
+        }
+    }
+}
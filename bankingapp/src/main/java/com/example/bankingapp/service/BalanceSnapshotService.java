@@ -0,0 +1,202 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.ShardingProperties;
+import com.example.bankingapp.config.SnapshotProperties;
+import com.example.bankingapp.dto.BalanceDTO;
+import com.example.bankingapp.model.AccountTransaction;
+import com.example.bankingapp.model.BalanceSnapshot;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.repository.AccountRepository;
+import com.example.bankingapp.repository.AccountTransactionRepository;
+import com.example.bankingapp.repository.BalanceSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Takes incremental balance snapshots in the background and answers balance-as-of queries from them.
+ * <p>
+ * The journal only counts the entries appended per account, so the balance-changing paths never wait for
+ * a snapshot. A background check snapshots every account with {@link SnapshotProperties#getOperations()}
+ * new entries, or with any new entry older than {@link SnapshotProperties#getMaxAge()}. A snapshot is
+ * computed from the previous one and the entries after it, without locking the account. An as-of query
+ * therefore reads one snapshot and a tail of roughly that many entries, however long the history is.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceSnapshotService {
+
+    private final AccountRepository accountRepository;
+    private final AccountTransactionRepository accountTransactionRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final SnapshotProperties properties;
+    private final ShardingProperties shardingProperties;
+
+    private final ConcurrentHashMap<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> snapshotTask;
+
+    @PostConstruct
+    void startSnapshotting() {
+        snapshotTask = taskScheduler.scheduleWithFixedDelay(this::snapshotDue, properties.getCheckInterval());
+    }
+
+    @PreDestroy
+    void stopSnapshotting() {
+        snapshotTask.cancel(false);
+    }
+
+    /**
+     * Counts a journal entry appended for the account. Inside a transaction the entry only counts once the
+     * transaction committed, so rolled back and retried operations never trigger a snapshot, and a snapshot is
+     * never taken before the entries it is due for are visible.
+     *
+     * @param accountId the ID of the account.
+     */
+    public void recordOperation(Long accountId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            count(accountId, 1);
+            return;
+        }
+        CommittedOperations operations = (CommittedOperations) TransactionSynchronizationManager.getResource(this);
+        if (operations == null) {
+            operations = new CommittedOperations();
+            TransactionSynchronizationManager.bindResource(this, operations);
+            TransactionSynchronizationManager.registerSynchronization(operations);
+        }
+        operations.counts.merge(accountId, 1, Integer::sum);
+    }
+
+    private void count(Long accountId, int operations) {
+        pending.computeIfAbsent(accountId, id -> new Pending(System.nanoTime())).operations.addAndGet(operations);
+    }
+
+    /**
+     * Snapshots every account that is due.
+     *
+     * @return the number of snapshots taken.
+     */
+    public int snapshotDue() {
+        long now = System.nanoTime();
+        int taken = 0;
+        for (Map.Entry<Long, Pending> entry : pending.entrySet()) {
+            Pending account = entry.getValue();
+            if (account.operations.get() < properties.getOperations()
+                    && now - account.since < properties.getMaxAge().toNanos()) {
+                continue;
+            }
+            pending.remove(entry.getKey(), account);
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> snapshot(entry.getKey())))) {
+                    taken++;
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Failed to snapshot the balance of account {}", entry.getKey(), ex);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Computes the balance of the account at a point in time from the latest snapshot taken at or before it
+     * and the journal entries between that snapshot and the next one.
+     * While the balance ledger is enabled, changes that have not been flushed yet are not included.
+     *
+     * @param accountId the ID of the account.
+     * @param asOf      the point in time, or {@code null} for now.
+     * @return the balance at that time; zero before the first journal entry.
+     * @throws EntityNotFoundException  if no account is found with the given ID.
+     * @throws IllegalArgumentException if accounts are sharded.
+     */
+    @Transactional(readOnly = true)
+    public BalanceDTO getBalanceAsOf(Long accountId, Instant asOf) {
+        if (shardingProperties.isEnabled()) {
+            throw new IllegalArgumentException("Past balances are not available while accounts are sharded");
+        }
+        if (!accountRepository.existsById(accountId)) {
+            log.error("Account not found with ID: {}", accountId);
+            throw new EntityNotFoundException("Account not found with ID: " + accountId);
+        }
+        Instant at = asOf != null ? asOf : Instant.now();
+        log.debug("Fetching balance of account {} as of {}", accountId, at);
+        BalanceSnapshot base = balanceSnapshotRepository
+                .findFirstByAccountIdAndAsOfLessThanEqualOrderByAccountIdDescAsOfDesc(accountId, at)
+                .orElse(null);
+        long upTo = balanceSnapshotRepository
+                .findFirstByAccountIdAndAsOfGreaterThanOrderByAccountIdAscAsOfAsc(accountId, at)
+                .map(BalanceSnapshot::getSequenceNumber)
+                .orElse(Long.MAX_VALUE);
+        long after = base != null ? base.getSequenceNumber() : 0;
+        long balance = base != null ? base.getBalance() : 0;
+        balance = Money.add(balance, accountTransactionRepository.sumAmountsUntil(accountId, after, upTo, at));
+        return new BalanceDTO(accountId, Money.toMajorUnits(balance), at);
+    }
+
+    private boolean snapshot(Long accountId) {
+        AccountTransaction last = accountTransactionRepository
+                .findFirstByAccountIdOrderByAccountIdDescSequenceNumberDesc(accountId)
+                .orElse(null);
+        BalanceSnapshot previous = balanceSnapshotRepository
+                .findFirstByAccountIdOrderByAccountIdDescSequenceNumberDesc(accountId)
+                .orElse(null);
+        long after = previous != null ? previous.getSequenceNumber() : 0;
+        if (last == null || last.getSequenceNumber() <= after) {
+            return false;
+        }
+        long tail = accountTransactionRepository.sumAmounts(accountId, after, last.getSequenceNumber());
+        BalanceSnapshot snapshot = new BalanceSnapshot();
+        snapshot.setAccountId(accountId);
+        snapshot.setSequenceNumber(last.getSequenceNumber());
+        snapshot.setBalance(Money.add(previous != null ? previous.getBalance() : 0, tail));
+        snapshot.setAsOf(last.getCreatedAt());
+        balanceSnapshotRepository.save(snapshot);
+        log.debug("Snapshot of account {} at sequence number {}", accountId, last.getSequenceNumber());
+        return true;
+    }
+
+    /**
+     * The journal entries counted in one transaction, added to the pending counts once it committed.
+     */
+    private final class CommittedOperations implements TransactionSynchronization {
+
+        private final Map<Long, Integer> counts = new HashMap<>();
+
+        @Override
+        public void afterCommit() {
+            counts.forEach(BalanceSnapshotService.this::count);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BalanceSnapshotService.this);
+        }
+    }
+
+    private static final class Pending {
+
+        private final long since;
+        private final AtomicLong operations = new AtomicLong();
+
+        private Pending(long since) {
+            this.since = since;
+        }
+    }
+}
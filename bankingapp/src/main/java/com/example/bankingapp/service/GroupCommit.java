@@ -0,0 +1,260 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.GroupCommitProperties;
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.IdempotencyRecord;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commits deposits and withdrawals in batches instead of one transaction each.
+ * <p>
+ * Callers put their operation into a bounded queue and wait for it. A single writer thread drains the queue
+ * into batches of up to {@link GroupCommitProperties#getMaxBatchSize()} operations, reads all of their
+ * accounts with one query under the {@link AccountConcurrency} strategy, applies the operations in queue order,
+ * journals each of them, writes every account once however many operations touched it, and commits the batch
+ * in one transaction. A caller returns only after the batch of its operation was committed. An operation on a
+ * missing account or a withdrawal without sufficient funds fails on its own without affecting the rest of the
+ * batch; if the commit fails, every operation of the batch fails with it.
+ * <p>
+ * An operation may carry the {@link IdempotencyRecord} of its idempotency key, which is inserted in the batch
+ * transaction, so the key is stored if and only if the change is committed. An operation whose key is already
+ * stored fails with a {@link DuplicateKeyException} without being applied. Callers must not hold a transaction
+ * while they wait, since the writer needs a connection of its own to commit their operation.
+ * Batch sizes are recorded as {@code account.group.commit.batch.size}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankingapp.group-commit", name = "enabled", havingValue = "true")
+@Slf4j
+public class GroupCommit {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final AccountConcurrency accountConcurrency;
+    private final TransactionJournal transactionJournal;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final GroupCommitProperties properties;
+    private final DistributionSummary batchSizes;
+    private final BlockingQueue<Operation> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public GroupCommit(AccountConcurrency accountConcurrency,
+                       TransactionJournal transactionJournal,
+                       IdempotencyRecordRepository idempotencyRecordRepository,
+                       GroupCommitProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.accountConcurrency = accountConcurrency;
+        this.transactionJournal = transactionJournal;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.properties = properties;
+        this.batchSizes = meterRegistry.summary("account.group.commit.batch.size");
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    @PostConstruct
+    void startWriting() {
+        running = true;
+        writer = new Thread(this::writeBatches, "group-commit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stopWriting() throws InterruptedException {
+        running = false;
+        writer.join();
+        Operation operation;
+        while ((operation = queue.poll()) != null) {
+            operation.result.completeExceptionally(new IllegalStateException("Group commit was stopped"));
+        }
+    }
+
+    /**
+     * Deposits a specified amount into the account and waits until it is committed.
+     *
+     * @param id                the ID of the account.
+     * @param amount            the amount to deposit in minor units.
+     * @param idempotencyRecord the record to insert with the deposit, or {@code null}.
+     * @throws EntityNotFoundException if no account is found with the given ID.
+     * @throws DuplicateKeyException   if the idempotency key of the record is already stored.
+     */
+    public void deposit(Long id, long amount, IdempotencyRecord idempotencyRecord) {
+        submit(new Operation(id, TransactionType.DEPOSIT, amount, idempotencyRecord));
+    }
+
+    /**
+     * Withdraws a specified amount from the account and waits until it is committed.
+     *
+     * @param id                the ID of the account.
+     * @param amount            the amount to withdraw in minor units.
+     * @param idempotencyRecord the record to insert with the withdrawal, or {@code null}.
+     * @throws EntityNotFoundException    if no account is found with the given ID.
+     * @throws InsufficientFundsException if the account has insufficient funds.
+     * @throws DuplicateKeyException      if the idempotency key of the record is already stored.
+     */
+    public void withdraw(Long id, long amount, IdempotencyRecord idempotencyRecord) {
+        submit(new Operation(id, TransactionType.WITHDRAWAL, -amount, idempotencyRecord));
+    }
+
+    private void submit(Operation operation) {
+        if (!running) {
+            throw new IllegalStateException("Group commit was stopped");
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // the caller's connection would stay checked out while the writer waits for one to commit
+            throw new IllegalStateException("Group commit operations must not be submitted within a transaction");
+        }
+        try {
+            queue.put(operation);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing an account update", ex);
+        }
+        try {
+            operation.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void writeBatches() {
+        List<Operation> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Operation first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getMaxBatchSize() - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Failed to commit a batch of {} account updates", batch.size(), ex);
+                batch.forEach(operation -> operation.result.completeExceptionally(ex));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Operation> batch) {
+        try {
+            writeOnce(batch);
+        } catch (DataIntegrityViolationException ex) {
+            // another instance stored one of the idempotency keys after the batch checked them; the second
+            // attempt finds the key and fails only its operation
+            log.debug("An idempotency key of the batch was stored concurrently, writing the batch again", ex);
+            writeOnce(batch);
+        }
+    }
+
+    private void writeOnce(List<Operation> batch) {
+        Set<Long> ids = new TreeSet<>();
+        Set<String> keys = new HashSet<>();
+        for (Operation operation : batch) {
+            ids.add(operation.id);
+            if (operation.idempotencyRecord != null) {
+                keys.add(operation.idempotencyRecord.getId());
+            }
+        }
+        List<RuntimeException> failures = new ArrayList<>(batch.size());
+        accountConcurrency.executeWithoutResult(status -> {
+            failures.clear();
+            Map<Long, Account> accounts = new HashMap<>();
+            accountConcurrency.findAll(ids).forEach(account -> accounts.put(account.getId(), account));
+            Set<String> storedKeys = new HashSet<>();
+            if (!keys.isEmpty()) {
+                idempotencyRecordRepository.findAllById(keys).forEach(record -> storedKeys.add(record.getId()));
+            }
+            for (Operation operation : batch) {
+                IdempotencyRecord record = operation.idempotencyRecord;
+                if (record != null && storedKeys.contains(record.getId())) {
+                    failures.add(new DuplicateKeyException("Idempotency key was already stored: " + record.getId()));
+                    continue;
+                }
+                RuntimeException failure = apply(accounts.get(operation.id), operation);
+                if (failure == null && record != null) {
+                    // a record persisted by a rolled back attempt must be inserted again
+                    record.setPersisted(false);
+                    idempotencyRecordRepository.save(record);
+                }
+                failures.add(failure);
+            }
+        });
+        batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (failures.get(i) == null) {
+                batch.get(i).result.complete(null);
+            } else {
+                batch.get(i).result.completeExceptionally(failures.get(i));
+            }
+        }
+    }
+
+    private RuntimeException apply(Account account, Operation operation) {
+        if (account == null) {
+            log.error("Account not found with ID: {}", operation.id);
+            return new EntityNotFoundException("Account not found with ID: " + operation.id);
+        }
+        if (operation.amount < 0 && account.getBalance() < -operation.amount) {
+            return new InsufficientFundsException("Insufficient funds");
+        }
+        try {
+            account.setBalance(Money.add(account.getBalance(), operation.amount));
+        } catch (IllegalArgumentException ex) {
+            return ex;
+        }
+        transactionJournal.append(account, operation.type, operation.amount);
+        return null;
+    }
+
+    private static final class Operation {
+
+        private final Long id;
+        private final TransactionType type;
+        private final long amount;
+        private final IdempotencyRecord idempotencyRecord;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private Operation(Long id, TransactionType type, long amount, IdempotencyRecord idempotencyRecord) {
+            this.id = id;
+            this.type = type;
+            this.amount = amount;
+            this.idempotencyRecord = idempotencyRecord;
+        }
+    }
+}
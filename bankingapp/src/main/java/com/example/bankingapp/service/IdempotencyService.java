@@ -0,0 +1,256 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.IdempotencyProperties;
+import com.example.bankingapp.config.ShardingProperties;
+import com.example.bankingapp.exception.IdempotencyKeyConflictException;
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.model.IdempotencyOutcome;
+import com.example.bankingapp.model.IdempotencyRecord;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * Makes deposits and withdrawals safe to retry: a request carrying an idempotency key is applied once, and
+ * every later request with the same key gets the recorded outcome instead, including a rejection for
+ * insufficient funds.
+ * <p>
+ * Outcomes are held in a bounded, expiring in-memory store, so a retry is answered without touching the
+ * database. Duplicates that arrive while the first request is still running wait for its outcome.
+ * Every outcome is also stored in the database, in the same transaction as the balance change, or in the same
+ * batch with group commit, so a key evicted from memory, forgotten by a restart or used on another instance is
+ * still applied only once: the second insert of the key fails, which rolls the repeated change back, and the
+ * stored outcome is replayed. Balance ledger changes are not part of a database transaction; there the key is
+ * looked up before the change and its outcome stored after it, so a crash in between can lose the outcome of
+ * an applied change. Keys are refused while accounts are sharded, since a shard transaction cannot include
+ * the record. The store is published as {@code cache.*} metrics tagged {@code cache=idempotency-keys}.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final IdempotencyProperties properties;
+    private final Optional<BalanceLedger> balanceLedger;
+    private final ShardingProperties shardingProperties;
+    private final Cache<String, Outcome> outcomes;
+    private final ConcurrentHashMap<String, CompletableFuture<Outcome>> inFlight = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> purgeTask;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              TransactionTemplate transactionTemplate,
+                              TaskScheduler taskScheduler,
+                              IdempotencyProperties properties,
+                              Optional<BalanceLedger> balanceLedger,
+                              ShardingProperties shardingProperties,
+                              MeterRegistry meterRegistry) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.taskScheduler = taskScheduler;
+        this.properties = properties;
+        this.balanceLedger = balanceLedger;
+        this.shardingProperties = shardingProperties;
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, outcomes, "idempotency-keys");
+    }
+
+    @PostConstruct
+    void startPurging() {
+        purgeTask = taskScheduler.scheduleWithFixedDelay(this::purgeExpired, properties.getPurgeInterval());
+    }
+
+    @PreDestroy
+    void stopPurging() {
+        purgeTask.cancel(false);
+    }
+
+    /**
+     * Applies a deposit or withdrawal at most once per idempotency key.
+     *
+     * @param key       the idempotency key, or {@code null} to apply the operation unconditionally.
+     * @param type      {@link TransactionType#DEPOSIT} or {@link TransactionType#WITHDRAWAL}.
+     * @param accountId the ID of the account.
+     * @param amount    the amount in minor units.
+     * @param operation applies the change to the balance, inserting the given record of the key in the
+     *                  transaction of the change unless the record is {@code null}.
+     * @throws IdempotencyKeyConflictException if the key was used for a different request.
+     * @throws InsufficientFundsException      if the first request with the key was rejected for insufficient funds.
+     * @throws IllegalArgumentException        if the key is blank or longer than {@value #MAX_KEY_LENGTH} characters,
+     *                                         or accounts are sharded.
+     */
+    public void execute(String key, TransactionType type, Long accountId, long amount,
+                        Consumer<IdempotencyRecord> operation) {
+        if (key == null) {
+            operation.accept(null);
+            return;
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency key must not be blank or longer than " + MAX_KEY_LENGTH + " characters");
+        }
+        if (shardingProperties.isEnabled()) {
+            throw new IllegalArgumentException("Idempotency keys are not supported while accounts are sharded");
+        }
+        Outcome request = new Outcome(type, accountId, amount, IdempotencyOutcome.APPLIED);
+        while (true) {
+            Outcome outcome = outcomes.getIfPresent(key);
+            if (outcome != null) {
+                replay(key, request, outcome);
+                return;
+            }
+            CompletableFuture<Outcome> claim = new CompletableFuture<>();
+            CompletableFuture<Outcome> running = inFlight.putIfAbsent(key, claim);
+            if (running != null) {
+                try {
+                    outcome = running.join();
+                } catch (CompletionException ex) {
+                    // the first request failed without an outcome, so this one may apply the operation itself
+                    continue;
+                }
+                replay(key, request, outcome);
+                return;
+            }
+            try {
+                // the key may have been completed between the lookup and the claim
+                outcome = outcomes.getIfPresent(key);
+                if (outcome == null) {
+                    outcome = apply(key, request, operation);
+                    outcomes.put(key, outcome);
+                }
+                claim.complete(outcome);
+            } catch (RuntimeException ex) {
+                claim.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(key, claim);
+            }
+            replay(key, request, outcome);
+            return;
+        }
+    }
+
+    /**
+     * Deletes the stored outcomes that are older than {@link IdempotencyProperties#getTtl()}.
+     *
+     * @return the number of outcomes deleted.
+     */
+    public int purgeExpired() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minus(properties.getTtl())));
+            log.debug("Purged {} expired idempotency records", purged);
+            return purged != null ? purged : 0;
+        } catch (RuntimeException ex) {
+            log.warn("Failed to purge expired idempotency records", ex);
+            return 0;
+        }
+    }
+
+    private Outcome apply(String key, Outcome request, Consumer<IdempotencyRecord> operation) {
+        if (balanceLedger.isPresent()) {
+            // ledger changes are not part of a database transaction, so the key is looked up before applying
+            Optional<Outcome> stored = idempotencyRecordRepository.findById(key).map(Outcome::of);
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+            try {
+                operation.accept(null);
+            } catch (InsufficientFundsException ex) {
+                return record(key, request.rejected());
+            }
+            return record(key, request);
+        }
+        try {
+            // no transaction is held here: with group commit the change commits on the writer's connection
+            operation.accept(request.toRecord(key));
+            return request;
+        } catch (InsufficientFundsException ex) {
+            return record(key, request.rejected());
+        } catch (DataIntegrityViolationException ex) {
+            return stored(key, ex);
+        }
+    }
+
+    private Outcome record(String key, Outcome outcome) {
+        try {
+            idempotencyRecordRepository.save(outcome.toRecord(key));
+            return outcome;
+        } catch (DataIntegrityViolationException ex) {
+            return stored(key, ex);
+        }
+    }
+
+    private Outcome stored(String key, DataIntegrityViolationException ex) {
+        log.debug("Idempotency key {} was already stored, replaying its outcome", key);
+        return idempotencyRecordRepository.findById(key).map(Outcome::of).orElseThrow(() -> ex);
+    }
+
+    private static void replay(String key, Outcome request, Outcome outcome) {
+        if (!outcome.matches(request)) {
+            log.error("Idempotency key {} was used for a different request", key);
+            throw new IdempotencyKeyConflictException("Idempotency key was used for a different request: " + key);
+        }
+        if (outcome.result() == IdempotencyOutcome.INSUFFICIENT_FUNDS) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+    }
+
+    /**
+     * The request a key was used for and its result; kept small since up to
+     * {@link IdempotencyProperties#getMaximumSize()} of them are held in memory.
+     */
+    private record Outcome(TransactionType type, long accountId, long amount, IdempotencyOutcome result) {
+
+        static Outcome of(IdempotencyRecord record) {
+            return new Outcome(record.getType(), record.getAccountId(), record.getAmount(), record.getOutcome());
+        }
+
+        boolean matches(Outcome request) {
+            return type == request.type && accountId == request.accountId && amount == request.amount;
+        }
+
+        Outcome rejected() {
+            return new Outcome(type, accountId, amount, IdempotencyOutcome.INSUFFICIENT_FUNDS);
+        }
+
+        IdempotencyRecord toRecord(String key) {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setId(key);
+            record.setType(type);
+            record.setAccountId(accountId);
+            record.setAmount(amount);
+            record.setOutcome(result);
+            record.setCreatedAt(Instant.now());
+            return record;
+        }
+    }
+}
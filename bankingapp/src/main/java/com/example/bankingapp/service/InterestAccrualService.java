@@ -0,0 +1,390 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.AccrualProperties;
+import com.example.bankingapp.config.ShardingProperties;
+import com.example.bankingapp.dto.AccrualReportDTO;
+import com.example.bankingapp.dto.BalanceChangeDTO;
+import com.example.bankingapp.model.AccountTransaction;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.model.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Posts the end-of-day interest and fees of a business date to every account.
+ * <p>
+ * The account ID space is split into partitions of {@link AccrualProperties#getPartitionSize()} that are
+ * processed in parallel on a fork-join pool. Each partition walks its accounts in ID order, one chunk of
+ * {@link AccrualProperties#getChunkSize()} accounts per transaction: the chunk is read with a keyset query and
+ * locked, the balances are written with one JDBC batch, the postings are journaled and the partition's
+ * {@link com.example.bankingapp.model.AccrualCheckpoint} is advanced past the chunk before the commit. Live
+ * deposits and withdrawals therefore only ever wait for one short chunk transaction, and a run that is
+ * interrupted, or started twice, continues after the last committed chunk without posting any account twice.
+ * The scheduled run, and a run right after startup, first finish every business date that an earlier run left
+ * unfinished. Both run on a thread of their own: the shared task scheduler, which also takes the balance
+ * snapshots, purges idempotency records and flushes the balance ledger, only triggers them. The postings of a
+ * chunk are published on the balance change feed after the chunk commits.
+ * <p>
+ * The partitions of a business date are fixed by its first run, so accounts opened afterwards with higher IDs
+ * accrue from the next business date on. Postings are not counted towards balance snapshots; an as-of query
+ * reads them from the journal tail.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InterestAccrualService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final TaskScheduler taskScheduler;
+    private final AccrualProperties properties;
+    private final Optional<BalanceLedger> balanceLedger;
+    private final Optional<AccountCache> accountCache;
+    private final ShardingProperties shardingProperties;
+    private final Optional<BalanceChangeFeed> balanceChangeFeed;
+
+    private ExecutorService runner;
+    private ScheduledFuture<?> accrualTask;
+
+    @PostConstruct
+    void scheduleAccrual() {
+        if (properties.isEnabled()) {
+            runner = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "interest-accrual");
+                thread.setDaemon(true);
+                return thread;
+            });
+            runner.execute(this::accrueUnfinished);
+            accrualTask = taskScheduler.schedule(() -> runner.execute(this::accruePreviousDay),
+                    new CronTrigger(properties.getCron(), properties.getZone()));
+        }
+    }
+
+    @PreDestroy
+    void cancelAccrual() {
+        if (runner != null) {
+            accrualTask.cancel(false);
+            // a run stopped between chunks is resumed by the next one
+            runner.shutdownNow();
+        }
+    }
+
+    /**
+     * Posts the interest and fees of the business date to every account that has not been posted yet.
+     *
+     * @param businessDate the business date.
+     * @return the counts and totals posted by this run.
+     * @throws IllegalArgumentException if the balance ledger is enabled, accounts are sharded, or the rate or fee
+     *                                  is negative.
+     */
+    public AccrualReportDTO accrue(LocalDate businessDate) {
+        if (balanceLedger.isPresent()) {
+            throw new IllegalArgumentException("Interest cannot be posted while the balance ledger is enabled");
+        }
+        if (shardingProperties.isEnabled()) {
+            throw new IllegalArgumentException("Interest cannot be posted while accounts are sharded");
+        }
+        Rate rate = Rate.of(properties.getAnnualInterestRate(), properties.getDayCount());
+        long fee = Money.toMinorUnits(properties.getDailyFee());
+        if (fee < 0) {
+            throw new IllegalArgumentException("The daily fee must not be negative");
+        }
+        List<Partition> partitions = partitions(businessDate);
+        log.debug("Accruing interest of {} over {} partitions", businessDate, partitions.size());
+        List<Callable<Tally>> tasks = new ArrayList<>(partitions.size());
+        for (Partition partition : partitions) {
+            tasks.add(() -> accrue(businessDate, partition, rate, fee));
+        }
+        Tally total = new Tally();
+        ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+        try {
+            RuntimeException failure = null;
+            for (Future<Tally> result : pool.invokeAll(tasks)) {
+                try {
+                    total.add(result.get());
+                } catch (ExecutionException ex) {
+                    failure = ex.getCause() instanceof RuntimeException cause ? cause
+                            : new IllegalStateException(ex.getCause());
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interest accrual of " + businessDate + " was interrupted", ex);
+        } finally {
+            pool.shutdown();
+        }
+        AccrualReportDTO report = total.toReport(businessDate);
+        report.setPartitions(partitions.size());
+        report.setResumedPartitions(partitions.stream().filter(Partition::started).count());
+        log.info("Accrued interest of {} on {} accounts: {} interest and {} fee postings, {} fees waived",
+                businessDate, report.getAccounts(), report.getInterestPostings(), report.getFeePostings(),
+                report.getWaivedFees());
+        return report;
+    }
+
+    /**
+     * The scheduled run: finishes the business dates left unfinished, then accrues the previous day.
+     */
+    void accruePreviousDay() {
+        accrueUnfinished();
+        accrueLogged(LocalDate.now(properties.getZone()).minusDays(1));
+    }
+
+    /**
+     * Finishes, oldest first, every business date whose partitions were created by a run that failed or was
+     * interrupted before it completed them all.
+     */
+    void accrueUnfinished() {
+        List<LocalDate> unfinished = jdbcTemplate.queryForList("select distinct business_date " +
+                "from accrual_checkpoint where not completed order by business_date", LocalDate.class);
+        for (LocalDate businessDate : unfinished) {
+            log.info("Resuming the unfinished interest accrual of {}", businessDate);
+            accrueLogged(businessDate);
+        }
+    }
+
+    private void accrueLogged(LocalDate businessDate) {
+        try {
+            accrue(businessDate);
+        } catch (RuntimeException ex) {
+            log.error("Interest accrual of {} failed, the next run resumes it", businessDate, ex);
+        }
+    }
+
+    /**
+     * Reads the partitions of the business date, creating them on its first run from the current highest
+     * account ID. A concurrent first run that created them in the meantime wins.
+     */
+    private List<Partition> partitions(LocalDate businessDate) {
+        List<Partition> partitions = loadPartitions(businessDate);
+        if (!partitions.isEmpty()) {
+            return partitions;
+        }
+        Long maxAccountId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from account", Long.class);
+        List<Object[]> rows = new ArrayList<>();
+        for (long start = 1; start <= maxAccountId; start += properties.getPartitionSize()) {
+            long end = Math.min(start + properties.getPartitionSize() - 1, maxAccountId);
+            rows.add(new Object[]{businessDate, start, end, start - 1});
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "insert into accrual_checkpoint(business_date, partition_start, partition_end, " +
+                            "last_account_id, completed) values (?, ?, ?, ?, false)", rows));
+        } catch (DuplicateKeyException ex) {
+            log.debug("Partitions of {} were created by a concurrent run", businessDate);
+        }
+        return loadPartitions(businessDate);
+    }
+
+    private List<Partition> loadPartitions(LocalDate businessDate) {
+        return jdbcTemplate.query("select partition_start, partition_end, last_account_id, completed " +
+                        "from accrual_checkpoint where business_date = ? order by partition_start",
+                (rs, rowNum) -> new Partition(rs.getLong(1), rs.getLong(2),
+                        rs.getBoolean(4) || rs.getLong(3) >= rs.getLong(1)), businessDate);
+    }
+
+    private Tally accrue(LocalDate businessDate, Partition partition, Rate rate, long fee) {
+        Tally tally = new Tally();
+        boolean completed;
+        do {
+            Chunk chunk = transactionTemplate.execute(status -> {
+                Chunk posted = accrueChunk(businessDate, partition, rate, fee);
+                // published while the chunk's accounts are locked, so the feed orders them after earlier changes
+                balanceChangeFeed.ifPresent(feed -> posted.changes.forEach(change -> feed.publish(change.accountId(),
+                        change.type(), change.amount(), change.balance())));
+                return posted;
+            });
+            tally.add(chunk);
+            accountCache.ifPresent(cache -> chunk.posted.forEach(cache::evict));
+            completed = chunk.completed;
+        } while (!completed);
+        return tally;
+    }
+
+    /**
+     * Posts to the next chunk of the partition. The checkpoint row is locked first, so concurrent runs of the
+     * same business date take turns on a partition and each chunk is posted by exactly one of them.
+     */
+    private Chunk accrueChunk(LocalDate businessDate, Partition partition, Rate rate, long fee) {
+        Chunk chunk = new Chunk();
+        List<Long> checkpoint = jdbcTemplate.queryForList("select last_account_id from accrual_checkpoint " +
+                        "where business_date = ? and partition_start = ? and not completed for update",
+                Long.class, businessDate, partition.start());
+        if (checkpoint.isEmpty()) {
+            chunk.completed = true;
+            return chunk;
+        }
+        long afterId = checkpoint.get(0);
+        Instant postedAt = Instant.now();
+        List<Object[]> balances = new ArrayList<>();
+        List<AccountTransaction> entries = new ArrayList<>();
+        long[] lastId = {afterId};
+        jdbcTemplate.query("select id, balance, journal_sequence from account where id > ? and id <= ? " +
+                "order by id fetch first ? rows only for update", rs -> {
+            long accountId = rs.getLong(1);
+            long balance = rs.getLong(2);
+            long sequence = rs.getLong(3);
+            lastId[0] = accountId;
+            chunk.accounts++;
+            long interest = rate.dailyInterest(balance);
+            long updated = Money.add(balance, interest);
+            boolean charged = false;
+            if (fee > 0) {
+                charged = updated >= fee;
+                if (charged) {
+                    updated -= fee;
+                } else {
+                    chunk.waivedFees++;
+                }
+            }
+            if (interest == 0 && !charged) {
+                return;
+            }
+            if (sequence == 0 && balance != 0) {
+                entries.add(entry(accountId, ++sequence, TransactionType.OPENING, balance, postedAt));
+            }
+            if (interest != 0) {
+                entries.add(entry(accountId, ++sequence, TransactionType.INTEREST, interest, postedAt));
+                chunk.changes.add(new Change(accountId, BalanceChangeDTO.Type.INTEREST, interest,
+                        Money.add(balance, interest)));
+                chunk.interestPostings++;
+                chunk.interest += interest;
+            }
+            if (charged) {
+                entries.add(entry(accountId, ++sequence, TransactionType.FEE, -fee, postedAt));
+                chunk.changes.add(new Change(accountId, BalanceChangeDTO.Type.FEE, -fee, updated));
+                chunk.feePostings++;
+                chunk.fees += fee;
+            }
+            balances.add(new Object[]{updated, sequence, accountId});
+            chunk.posted.add(accountId);
+        }, afterId, partition.end(), properties.getChunkSize());
+        chunk.completed = chunk.accounts < properties.getChunkSize();
+        if (!balances.isEmpty()) {
+            jdbcTemplate.batchUpdate("update account set balance = ?, journal_sequence = ?, version = version + 1 " +
+                    "where id = ?", balances);
+            entityManager.unwrap(Session.class).setJdbcBatchSize(properties.getChunkSize());
+            entries.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        jdbcTemplate.update("update accrual_checkpoint set last_account_id = ?, completed = ? " +
+                        "where business_date = ? and partition_start = ?",
+                chunk.completed ? partition.end() : lastId[0], chunk.completed, businessDate, partition.start());
+        return chunk;
+    }
+
+    private static AccountTransaction entry(long accountId, long sequence, TransactionType type, long amount,
+                                            Instant createdAt) {
+        AccountTransaction entry = new AccountTransaction();
+        entry.setAccountId(accountId);
+        entry.setSequenceNumber(sequence);
+        entry.setType(type);
+        entry.setAmount(amount);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+
+    private record Partition(long start, long end, boolean started) {
+    }
+
+    private record Change(long accountId, BalanceChangeDTO.Type type, long amount, long balance) {
+    }
+
+    /**
+     * Daily interest rate as an exact fraction, so the interest of a balance is computed in integer arithmetic.
+     */
+    private record Rate(long numerator, long denominator) {
+
+        static Rate of(BigDecimal annualRate, int dayCount) {
+            if (annualRate.signum() < 0 || dayCount < 1) {
+                throw new IllegalArgumentException("The interest rate and day count must not be negative");
+            }
+            BigDecimal rate = annualRate.stripTrailingZeros();
+            if (rate.scale() < 0) {
+                rate = rate.setScale(0);
+            }
+            return new Rate(rate.unscaledValue().longValueExact(),
+                    Math.multiplyExact(BigInteger.TEN.pow(rate.scale()).longValueExact(), dayCount));
+        }
+
+        long dailyInterest(long balance) {
+            if (balance <= 0 || numerator == 0) {
+                return 0;
+            }
+            long high = Math.multiplyHigh(balance, numerator);
+            if (high == 0 && balance * numerator >= 0) {
+                return balance * numerator / denominator;
+            }
+            return BigInteger.valueOf(balance).multiply(BigInteger.valueOf(numerator))
+                    .divide(BigInteger.valueOf(denominator)).longValueExact();
+        }
+    }
+
+    private static class Tally {
+
+        long accounts;
+        long interestPostings;
+        long feePostings;
+        long waivedFees;
+        long interest;
+        long fees;
+
+        void add(Tally other) {
+            accounts += other.accounts;
+            interestPostings += other.interestPostings;
+            feePostings += other.feePostings;
+            waivedFees += other.waivedFees;
+            interest = Money.add(interest, other.interest);
+            fees = Money.add(fees, other.fees);
+        }
+
+        AccrualReportDTO toReport(LocalDate businessDate) {
+            AccrualReportDTO report = new AccrualReportDTO();
+            report.setBusinessDate(businessDate);
+            report.setAccounts(accounts);
+            report.setInterestPostings(interestPostings);
+            report.setFeePostings(feePostings);
+            report.setWaivedFees(waivedFees);
+            report.setInterest(Money.toMajorUnits(interest));
+            report.setFees(Money.toMajorUnits(fees));
+            return report;
+        }
+    }
+
+    private static final class Chunk extends Tally {
+
+        final List<Long> posted = new ArrayList<>();
+        final List<Change> changes = new ArrayList<>();
+        boolean completed;
+    }
+}
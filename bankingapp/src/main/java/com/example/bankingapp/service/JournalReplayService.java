@@ -0,0 +1,229 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.JournalProperties;
+import com.example.bankingapp.config.ShardingProperties;
+import com.example.bankingapp.dto.BalanceChangeDTO;
+import com.example.bankingapp.dto.ReplayReportDTO;
+import com.example.bankingapp.model.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Rebuilds balances by folding the transaction journal and compares them with the stored balances.
+ * <p>
+ * The account ID space is split into ranges of {@link JournalProperties#getReplayPartitionSize()} that are
+ * replayed in parallel on a fork-join pool. Each range reads its accounts and streams its journal entries in
+ * account and sequence order from the journal's unique index, inside one repeatable-read transaction, so the
+ * two reads see the same snapshot even while balances keep changing. Accounts created before the journal
+ * existed and not changed since have no entries yet and are skipped. Repaired balances are published on the
+ * balance change feed after they commit.
+ */
+@Service
+@Slf4j
+public class JournalReplayService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JournalProperties properties;
+    private final Optional<BalanceLedger> balanceLedger;
+    private final Optional<AccountCache> accountCache;
+    private final ShardingProperties shardingProperties;
+    private final Optional<BalanceChangeFeed> balanceChangeFeed;
+
+    public JournalReplayService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                JournalProperties properties, Optional<BalanceLedger> balanceLedger,
+                                Optional<AccountCache> accountCache, ShardingProperties shardingProperties,
+                                Optional<BalanceChangeFeed> balanceChangeFeed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.balanceLedger = balanceLedger;
+        this.accountCache = accountCache;
+        this.shardingProperties = shardingProperties;
+        this.balanceChangeFeed = balanceChangeFeed;
+    }
+
+    /**
+     * Replays the journal of every account.
+     * With {@code rebuild}, each mismatched stored balance is replaced by the journal balance, unless the
+     * account changed since it was read.
+     *
+     * @param rebuild whether to repair mismatched balances.
+     * @return the counts of replayed accounts, entries and mismatches.
+     * @throws IllegalArgumentException if a rebuild is requested while the balance ledger is enabled, or accounts
+     *                                  are sharded.
+     */
+    public ReplayReportDTO replay(boolean rebuild) {
+        if (shardingProperties.isEnabled()) {
+            throw new IllegalArgumentException("The journal cannot be replayed while accounts are sharded");
+        }
+        if (rebuild && balanceLedger.isPresent()) {
+            throw new IllegalArgumentException("Balances cannot be rebuilt while the balance ledger is enabled");
+        }
+        balanceLedger.ifPresent(BalanceLedger::flush);
+        Long maxAccountId = jdbcTemplate.queryForObject(
+                "select greatest(coalesce((select max(id) from account), 0), " +
+                        "coalesce((select max(account_id) from account_transaction), 0))", Long.class);
+        log.debug("Replaying the journal of accounts up to ID {}", maxAccountId);
+        ForkJoinPool pool = new ForkJoinPool(properties.getReplayParallelism());
+        try {
+            ReplayReportDTO report = pool.invoke(new ReplayTask(1, maxAccountId == null ? 0 : maxAccountId, rebuild));
+            log.info("Replayed {} journal entries of {} accounts: {} mismatched, {} with sequence gaps, {} rebuilt",
+                    report.getEntries(), report.getAccounts(), report.getMismatched(), report.getSequenceGaps(),
+                    report.getRebuilt());
+            return report;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ReplayReportDTO replayRange(long fromId, long toId, boolean rebuild) {
+        ReplayReportDTO report = new ReplayReportDTO();
+        List<Repair> repairs = new ArrayList<>();
+        snapshotTemplate.executeWithoutResult(status -> {
+            Map<Long, Repair> stored = new HashMap<>();
+            jdbcTemplate.query("select id, balance, journal_sequence from account where id between ? and ?", rs -> {
+                long accountId = rs.getLong(1);
+                stored.put(accountId, new Repair(accountId, 0, rs.getLong(2), rs.getLong(3)));
+            }, fromId, toId);
+            Map<Long, Long> replayed = new HashMap<>(stored.size() * 2);
+            Set<Long> gapped = new HashSet<>();
+            long[] last = {0, 0};
+            long[] entries = {0};
+            jdbcTemplate.query("select account_id, sequence_number, amount from account_transaction " +
+                    "where account_id between ? and ? order by account_id, sequence_number", rs -> {
+                long accountId = rs.getLong(1);
+                long sequenceNumber = rs.getLong(2);
+                long expected = accountId == last[0] ? last[1] + 1 : 1;
+                if (sequenceNumber != expected) {
+                    gapped.add(accountId);
+                }
+                last[0] = accountId;
+                last[1] = sequenceNumber;
+                replayed.merge(accountId, rs.getLong(3), Money::add);
+                entries[0]++;
+            }, fromId, toId);
+            report.setAccounts(stored.size());
+            report.setEntries(entries[0]);
+            report.setSequenceGaps(gapped.size());
+            for (Repair account : stored.values()) {
+                if (account.journalSequence() == 0 && !replayed.containsKey(account.accountId())) {
+                    continue;
+                }
+                long journalBalance = replayed.getOrDefault(account.accountId(), 0L);
+                if (account.storedBalance() != journalBalance) {
+                    report.setMismatched(report.getMismatched() + 1);
+                    if (report.getMismatches().size() < properties.getMaxReportedMismatches()) {
+                        report.getMismatches().add(new ReplayReportDTO.Mismatch(account.accountId(),
+                                Money.toMajorUnits(account.storedBalance()), Money.toMajorUnits(journalBalance)));
+                    }
+                    repairs.add(new Repair(account.accountId(), journalBalance, account.storedBalance(),
+                            account.journalSequence()));
+                }
+            }
+        });
+        if (rebuild && !repairs.isEmpty()) {
+            report.setRebuilt(repair(repairs));
+        }
+        return report;
+    }
+
+    /**
+     * Writes the journal balances, guarded by the balance and journal sequence that were replayed,
+     * so an account that changed in the meantime is left alone.
+     */
+    private long repair(List<Repair> repairs) {
+        int[][] counts = transactionTemplate.execute(status -> {
+            int[][] updated = jdbcTemplate.batchUpdate(
+                    "update account set balance = ?, version = version + 1 " +
+                            "where id = ? and balance = ? and journal_sequence = ?",
+                    repairs, repairs.size(), (ps, repair) -> {
+                        ps.setLong(1, repair.balance());
+                        ps.setLong(2, repair.accountId());
+                        ps.setLong(3, repair.storedBalance());
+                        ps.setLong(4, repair.journalSequence());
+                    });
+            // published while the repaired rows are locked, so the feed orders them after earlier changes
+            for (int i = 0; i < repairs.size(); i++) {
+                Repair repair = repairs.get(i);
+                if (updated[0][i] != 0) {
+                    balanceChangeFeed.ifPresent(feed -> feed.publish(repair.accountId(),
+                            BalanceChangeDTO.Type.REPAIRED, repair.balance() - repair.storedBalance(),
+                            repair.balance()));
+                }
+            }
+            return updated;
+        });
+        long rebuilt = 0;
+        for (int i = 0; i < repairs.size(); i++) {
+            if (counts[0][i] != 0) {
+                rebuilt++;
+                Repair repair = repairs.get(i);
+                accountCache.ifPresent(cache -> cache.evict(repair.accountId()));
+            }
+        }
+        return rebuilt;
+    }
+
+    private static ReplayReportDTO merge(ReplayReportDTO left, ReplayReportDTO right, int maxReportedMismatches) {
+        left.setAccounts(left.getAccounts() + right.getAccounts());
+        left.setEntries(left.getEntries() + right.getEntries());
+        left.setMismatched(left.getMismatched() + right.getMismatched());
+        left.setSequenceGaps(left.getSequenceGaps() + right.getSequenceGaps());
+        left.setRebuilt(left.getRebuilt() + right.getRebuilt());
+        for (ReplayReportDTO.Mismatch mismatch : right.getMismatches()) {
+            if (left.getMismatches().size() >= maxReportedMismatches) {
+                break;
+            }
+            left.getMismatches().add(mismatch);
+        }
+        return left;
+    }
+
+    private final class ReplayTask extends RecursiveTask<ReplayReportDTO> {
+
+        private final long fromId;
+        private final long toId;
+        private final boolean rebuild;
+
+        private ReplayTask(long fromId, long toId, boolean rebuild) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.rebuild = rebuild;
+        }
+
+        @Override
+        protected ReplayReportDTO compute() {
+            if (toId - fromId < properties.getReplayPartitionSize()) {
+                return replayRange(fromId, toId, rebuild);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            ReplayTask left = new ReplayTask(fromId, middle, rebuild);
+            ReplayTask right = new ReplayTask(middle + 1, toId, rebuild);
+            left.fork();
+            ReplayReportDTO rightReport = right.compute();
+            return merge(left.join(), rightReport, properties.getMaxReportedMismatches());
+        }
+    }
+
+    private record Repair(long accountId, long balance, long storedBalance, long journalSequence) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.RateLimitProperties;
+import com.example.bankingapp.exception.RateLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets limiting the request rate per account and per client.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the generic cell
+ * rate algorithm): admitting a request moves that time one refill interval ahead with a compare-and-set, and a
+ * request is rejected if this would put it more than the capacity's worth of intervals ahead of now. Checking an
+ * existing bucket therefore never blocks and allocates nothing. Buckets are kept in bounded Caffeine caches that
+ * drop idle and least recently used keys, so memory stays bounded however many keys are seen.
+ * Rejections are counted as {@code rate.limit.rejections}, tagged with the scope; the buckets are published
+ * as {@code cache.*} metrics tagged {@code cache=rate-limit-accounts} and {@code cache=rate-limit-clients}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankingapp.rate-limit", name = "enabled", havingValue = "true")
+@Slf4j
+public class RateLimiter {
+
+    private final Scope accounts;
+    private final Scope clients;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.accounts = new Scope("account", properties.getAccount(), properties, meterRegistry);
+        this.clients = new Scope("client", properties.getClient(), properties, meterRegistry);
+    }
+
+    /**
+     * Takes a token from the bucket of the client and, if given, from the bucket of the account.
+     *
+     * @param accountKey identifies the account, or {@code null} for a request not aimed at a single account.
+     * @param clientKey  identifies the client.
+     * @throws RateLimitExceededException if either bucket is empty.
+     */
+    public void acquire(String accountKey, String clientKey) {
+        long now = System.nanoTime();
+        clients.acquire(clientKey, now);
+        if (accountKey != null) {
+            accounts.acquire(accountKey, now);
+        }
+    }
+
+    private static final class Scope {
+
+        private final String name;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Cache<String, Bucket> buckets;
+        private final Counter rejections;
+
+        private Scope(String name, RateLimitProperties.Limit limit, RateLimitProperties properties,
+                      MeterRegistry meterRegistry) {
+            if (limit.getCapacity() < 1 || limit.getRefillPerSecond() <= 0) {
+                throw new IllegalArgumentException(
+                        "The " + name + " rate limit needs a positive capacity and refill rate");
+            }
+            this.name = name;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRefillPerSecond());
+            this.burstNanos = (long) Math.min(Long.MAX_VALUE / 2, (double) intervalNanos * limit.getCapacity());
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaximumKeys())
+                    .expireAfterAccess(properties.getIdleTimeout())
+                    // maintenance is cheap, so it runs on the calling thread instead of being handed off
+                    .executor(Runnable::run)
+                    .recordStats()
+                    .build();
+            this.rejections = meterRegistry.counter("rate.limit.rejections", "scope", name);
+            CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit-" + name + "s");
+        }
+
+        private void acquire(String key, long now) {
+            Bucket bucket = buckets.getIfPresent(key);
+            if (bucket == null) {
+                bucket = buckets.get(key, k -> new Bucket(now));
+            }
+            long fullAt;
+            long next;
+            do {
+                fullAt = bucket.fullAt.get();
+                next = Math.max(fullAt, now) + intervalNanos;
+                if (next - now > burstNanos) {
+                    rejections.increment();
+                    log.debug("Rate limit of {} {} exceeded", name, key);
+                    throw new RateLimitExceededException("Rate limit of the " + name + " exceeded",
+                            Duration.ofNanos(next - now - burstNanos));
+                }
+            } while (!bucket.fullAt.compareAndSet(fullAt, next));
+        }
+    }
+
+    private static final class Bucket {
+
+        /**
+         * {@link System#nanoTime()} at which the bucket is full again; in the past while it is full.
+         */
+        private final AtomicLong fullAt;
+
+        private Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+    }
+}
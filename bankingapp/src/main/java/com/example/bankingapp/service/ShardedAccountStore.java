@@ -0,0 +1,735 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.config.ShardingProperties;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.BalanceChangeDTO;
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.AccountTransaction;
+import com.example.bankingapp.model.AccountView;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.model.Transfer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Stores the accounts and their journals in the {@link AccountShards} instead of the application's data source.
+ * <p>
+ * An operation on one account runs in a local transaction on the account's shard, with the account row locked.
+ * A batch of transfers locks its accounts in ascending shard and ID order, so concurrent batches cannot
+ * deadlock, and commits locally when all of its accounts are on one shard. Otherwise it commits in two phases:
+ * every shard prepares its part with H2's {@code PREPARE COMMIT}, the decision to commit is recorded in the
+ * {@code shard_transfer} table of the first shard, and only then are the parts committed. A part whose commit
+ * fails is committed again by name from another connection, and the decision is kept until every part is
+ * committed. A part left in doubt by a crash between the phases is committed on the next startup if the
+ * decision was recorded, and rolled back otherwise.
+ * <p>
+ * Changes of single accounts are published to the {@link BalanceChangeFeed} inside their shard transaction.
+ * <p>
+ * Reads spanning shards, the account pages and the stream of all accounts, query the shards in parallel and
+ * merge their results in ID order. They read each shard at its own point in time, not one snapshot of all.
+ */
+@Service
+@ConditionalOnProperty(prefix = "bankingapp.sharding", name = "enabled", havingValue = "true")
+@Slf4j
+public class ShardedAccountStore {
+
+    private static final String SELECT_VIEW = "select id, account_number, name, balance from account ";
+
+    private static final RowMapper<AccountView> VIEW = (rs, row) ->
+            new AccountView(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4));
+
+    private static final RowMapper<LockedAccount> LOCKED = (rs, row) ->
+            new LockedAccount(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4), rs.getLong(5));
+
+    private static final RowMapper<AccountTransaction> ENTRY = (rs, row) -> {
+        AccountTransaction entry = new AccountTransaction();
+        entry.setId(rs.getLong(1));
+        entry.setAccountId(rs.getLong(2));
+        entry.setSequenceNumber(rs.getLong(3));
+        entry.setType(TransactionType.valueOf(rs.getString(4)));
+        entry.setAmount(rs.getLong(5));
+        entry.setCreatedAt(rs.getObject(6, Instant.class));
+        return entry;
+    };
+
+    private final AccountShards shards;
+    private final AccountMapper accountMapper;
+    private final ShardingProperties properties;
+    private final Optional<BalanceChangeFeed> balanceChangeFeed;
+
+    /**
+     * Commits the transaction of a transfer's connection on a shard; replaced by tests to make a commit fail.
+     */
+    ShardCommit shardCommit = (shard, connection) -> connection.commit();
+
+    public ShardedAccountStore(AccountShards shards, AccountMapper accountMapper, ShardingProperties properties,
+                               Optional<BalanceLedger> balanceLedger, Optional<GroupCommit> groupCommit,
+                               Optional<BalanceChangeFeed> balanceChangeFeed) {
+        if (balanceLedger.isPresent() || groupCommit.isPresent()) {
+            throw new IllegalStateException(
+                    "Sharded accounts cannot be combined with the balance ledger or the group commit");
+        }
+        this.shards = shards;
+        this.accountMapper = accountMapper;
+        this.properties = properties;
+        this.balanceChangeFeed = balanceChangeFeed;
+    }
+
+    /**
+     * Resolves the transfers a crash left prepared but not committed: those whose decision was recorded are
+     * committed, the others rolled back.
+     */
+    @PostConstruct
+    void recover() {
+        JdbcTemplate coordinator = shards.get(0).jdbcTemplate();
+        Set<String> decided = new HashSet<>(coordinator.queryForList("select name from shard_transfer", String.class));
+        for (int index = 0; index < shards.count(); index++) {
+            JdbcTemplate jdbcTemplate = shards.get(index).jdbcTemplate();
+            for (String name : jdbcTemplate.queryForList(
+                    "select transaction_name from information_schema.in_doubt", String.class)) {
+                boolean commit = decided.contains(name);
+                log.warn("Transfer {} was left in doubt on shard {}, {}", name, index,
+                        commit ? "committing it" : "rolling it back");
+                jdbcTemplate.execute((commit ? "commit transaction " : "rollback transaction ") + name);
+            }
+        }
+        if (!decided.isEmpty()) {
+            coordinator.update("delete from shard_transfer");
+        }
+    }
+
+    /**
+     * Creates an account on the shard of its account number and journals its opening balance.
+     *
+     * @param accountDTO the account data to be created.
+     * @return the created account as a DTO.
+     */
+    public AccountDTO create(AccountDTO accountDTO) {
+        Account account = accountMapper.toEntity(accountDTO);
+        AccountShards.Shard shard = shards.ofAccountNumber(account.getAccountNumber());
+        return shard.transactionTemplate().execute(status -> {
+            JdbcTemplate jdbcTemplate = shard.jdbcTemplate();
+            account.setId(shard.nextAccountId(jdbcTemplate));
+            LockedAccount created = new LockedAccount(account.getId(), account.getAccountNumber(), account.getName(),
+                    0, 0);
+            if (account.getBalance() != 0) {
+                created.change(shard, jdbcTemplate, TransactionType.OPENING, account.getBalance());
+            }
+            jdbcTemplate.update("insert into account(id, account_number, name, balance, journal_sequence, version) " +
+                            "values (?, ?, ?, ?, ?, 0)",
+                    created.id, created.accountNumber, created.name, created.balance, created.journalSequence);
+            insertEntries(jdbcTemplate, created.entries);
+            account.setJournalSequence(created.journalSequence);
+            publish(created.id, BalanceChangeDTO.Type.CREATED, created.balance, created.balance);
+            return accountMapper.toDTO(account);
+        });
+    }
+
+    /**
+     * Finds an account by its ID.
+     */
+    public Optional<AccountView> findViewById(Long id) {
+        return shards.ofAccount(id).jdbcTemplate().query(SELECT_VIEW + "where id = ?", VIEW, id).stream().findFirst();
+    }
+
+    /**
+     * Finds the ID of the account with the given number.
+     */
+    public Optional<Long> findIdByAccountNumber(String accountNumber) {
+        return shards.ofAccountNumber(accountNumber).jdbcTemplate()
+                .queryForList("select id from account where account_number = ?", Long.class, accountNumber)
+                .stream().findFirst();
+    }
+
+    /**
+     * Returns whether an account with the given ID exists.
+     */
+    public boolean existsById(Long id) {
+        return !shards.ofAccount(id).jdbcTemplate()
+                .queryForList("select id from account where id = ?", Long.class, id).isEmpty();
+    }
+
+    /**
+     * Deposits into or withdraws from an account.
+     *
+     * @param id     the ID of the account.
+     * @param type   {@link TransactionType#DEPOSIT} or {@link TransactionType#WITHDRAWAL}.
+     * @param amount the signed change in minor units.
+     * @return the new balance in minor units.
+     * @throws EntityNotFoundException    if no account is found with the given ID.
+     * @throws InsufficientFundsException if a withdrawal exceeds the balance.
+     */
+    public long change(Long id, TransactionType type, long amount) {
+        AccountShards.Shard shard = shards.ofAccount(id);
+        return shard.transactionTemplate().execute(status -> {
+            JdbcTemplate jdbcTemplate = shard.jdbcTemplate();
+            LockedAccount account = lock(jdbcTemplate, id);
+            if (amount < 0 && account.balance < -amount) {
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            account.change(shard, jdbcTemplate, type, amount);
+            write(jdbcTemplate, List.of(account));
+            publish(id, type == TransactionType.DEPOSIT ? BalanceChangeDTO.Type.DEPOSIT
+                    : BalanceChangeDTO.Type.WITHDRAWAL, amount, account.balance);
+            return account.balance;
+        });
+    }
+
+    /**
+     * Applies a batch of transfers atomically, in the given order, committing in two phases when the accounts
+     * are on more than one shard.
+     *
+     * @param transfers the transfers to apply.
+     * @throws EntityNotFoundException    if any of the accounts does not exist.
+     * @throws InsufficientFundsException if any debited account has insufficient funds at its turn.
+     */
+    public void transferAll(List<Transfer> transfers) {
+        TreeMap<Integer, TreeSet<Long>> idsByShard = new TreeMap<>();
+        for (Transfer transfer : transfers) {
+            for (Long id : List.of(transfer.fromId(), transfer.toId())) {
+                idsByShard.computeIfAbsent(shards.ofAccount(id).index(), index -> new TreeSet<>()).add(id);
+            }
+        }
+        Map<Integer, Participant> byShard = new LinkedHashMap<>();
+        Collection<Participant> participants = byShard.values();
+        boolean decided = false;
+        try {
+            Map<Long, LockedAccount> accounts = new HashMap<>();
+            for (Map.Entry<Integer, TreeSet<Long>> shardIds : idsByShard.entrySet()) {
+                Participant participant = new Participant(shards.get(shardIds.getKey()));
+                byShard.put(shardIds.getKey(), participant);
+                participant.lock(shardIds.getValue()).forEach(account -> accounts.put(account.id, account));
+            }
+            for (Transfer transfer : transfers) {
+                LockedAccount from = locked(accounts, transfer.fromId());
+                LockedAccount to = locked(accounts, transfer.toId());
+                if (from.balance < transfer.amount()) {
+                    throw new InsufficientFundsException("Insufficient funds");
+                }
+                Participant debited = byShard.get(shards.ofAccount(from.id).index());
+                Participant credited = byShard.get(shards.ofAccount(to.id).index());
+                from.change(debited.shard, debited.jdbcTemplate, TransactionType.TRANSFER_OUT, -transfer.amount());
+                to.change(credited.shard, credited.jdbcTemplate, TransactionType.TRANSFER_IN, transfer.amount());
+            }
+            for (Participant participant : participants) {
+                write(participant.jdbcTemplate, participant.accounts);
+            }
+            if (participants.size() == 1) {
+                participants.iterator().next().commit(shardCommit);
+                return;
+            }
+            String name = "TRANSFER_" + UUID.randomUUID().toString().replace("-", "").toUpperCase();
+            for (Participant participant : participants) {
+                participant.jdbcTemplate.execute("prepare commit " + name);
+            }
+            shards.get(0).jdbcTemplate().update("insert into shard_transfer(name, decided_at) values (?, ?)",
+                    name, Instant.now());
+            decided = true;
+            boolean inDoubt = false;
+            for (Participant participant : participants) {
+                if (!commitDecided(participant, name)) {
+                    inDoubt = true;
+                }
+            }
+            if (!inDoubt) {
+                shards.get(0).jdbcTemplate().update("delete from shard_transfer where name = ?", name);
+            }
+        } catch (RuntimeException ex) {
+            if (!decided) {
+                participants.forEach(Participant::rollback);
+            }
+            throw ex;
+        } finally {
+            participants.forEach(Participant::close);
+        }
+    }
+
+    /**
+     * Commits a shard's prepared part of a decided transfer. When the commit on the part's own connection fails,
+     * the prepared transaction is committed by name from another connection of the shard, up to
+     * {@link ShardingProperties#getCommitRetries()} times. The part's connection stays open meanwhile: H2 rolls
+     * back a prepared transaction when its session is closed, so returning it to the pool would discard the
+     * part.
+     *
+     * @return whether the part is committed; if not, its connection is kept out of the pool so the part stays
+     * in doubt until it is committed on the next startup.
+     */
+    private boolean commitDecided(Participant participant, String name) {
+        try {
+            participant.commit(shardCommit);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Could not commit transfer {} on shard {}, committing it from another connection",
+                    name, participant.shard.index(), ex);
+        }
+        JdbcTemplate jdbcTemplate = participant.shard.jdbcTemplate();
+        for (int attempt = 1; attempt <= properties.getCommitRetries(); attempt++) {
+            try {
+                // the part cannot be rolled back while its session is open, so once it is no longer in doubt it
+                // is committed, possibly by the commit that reported the failure
+                if (!jdbcTemplate.queryForList("select transaction_name from information_schema.in_doubt " +
+                        "where transaction_name = ?", String.class, name).isEmpty()) {
+                    jdbcTemplate.execute("commit transaction " + name);
+                }
+                participant.resolved = true;
+                return true;
+            } catch (RuntimeException ex) {
+                log.warn("Could not commit transfer {} on shard {} (attempt {})",
+                        name, participant.shard.index(), attempt, ex);
+                pause(properties.getCommitRetryDelay());
+            }
+        }
+        participant.inDoubt = true;
+        log.error("Transfer {} is committed but left in doubt on shard {} until the next startup; its connection " +
+                "is kept out of the pool", name, participant.shard.index());
+        return false;
+    }
+
+    private static void pause(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while committing a transfer", ex);
+        }
+    }
+
+    /**
+     * Deletes an account by its ID. Its journal is kept.
+     *
+     * @param id the ID of the account.
+     * @return the number of the deleted account.
+     * @throws EntityNotFoundException if no account is found with the given ID.
+     */
+    public String delete(Long id) {
+        AccountShards.Shard shard = shards.ofAccount(id);
+        return shard.transactionTemplate().execute(status -> {
+            LockedAccount account = lock(shard.jdbcTemplate(), id);
+            shard.jdbcTemplate().update("delete from account where id = ?", id);
+            publish(id, BalanceChangeDTO.Type.DELETED, 0, null);
+            return account.accountNumber;
+        });
+    }
+
+    /**
+     * Updates the name, balance and account number of an account, as far as they are given.
+     * A changed balance is journaled as an adjustment by the difference.
+     *
+     * @param id         the ID of the account.
+     * @param accountDTO the updated account data.
+     * @return the updated account and its previous number.
+     * @throws EntityNotFoundException  if no account is found with the given ID.
+     * @throws IllegalArgumentException if the balance is negative, or the new account number belongs on
+     *                                  another shard.
+     */
+    public Update update(Long id, AccountDTO accountDTO) {
+        AccountShards.Shard shard = shards.ofAccount(id);
+        if (accountDTO.getAccountNumber() != null && shards.ofAccountNumber(accountDTO.getAccountNumber()) != shard) {
+            throw new IllegalArgumentException("Account number " + accountDTO.getAccountNumber()
+                    + " belongs on another shard; accounts cannot move between shards");
+        }
+        return shard.transactionTemplate().execute(status -> {
+            JdbcTemplate jdbcTemplate = shard.jdbcTemplate();
+            LockedAccount account = lock(jdbcTemplate, id);
+            String previousNumber = account.accountNumber;
+            long change = 0;
+            if (accountDTO.getName() != null) {
+                account.name = accountDTO.getName();
+            }
+            if (accountDTO.getBalance() != null) {
+                long balance = Money.toMinorUnits(accountDTO.getBalance());
+                if (balance < 0) {
+                    throw new IllegalArgumentException("Balance must be zero or positive");
+                }
+                change = Money.subtract(balance, account.balance);
+                if (change != 0) {
+                    account.change(shard, jdbcTemplate, TransactionType.ADJUSTMENT, change);
+                }
+            }
+            if (accountDTO.getAccountNumber() != null) {
+                account.accountNumber = accountDTO.getAccountNumber();
+            }
+            jdbcTemplate.update("update account set account_number = ?, name = ?, balance = ?, journal_sequence = ?, " +
+                            "version = version + 1 where id = ?",
+                    account.accountNumber, account.name, account.balance, account.journalSequence, id);
+            insertEntries(jdbcTemplate, account.entries);
+            publish(id, BalanceChangeDTO.Type.UPDATED, change, account.balance);
+            AccountDTO updated = accountMapper.toDTO(
+                    new AccountView(id, account.accountNumber, account.name, account.balance));
+            return new Update(updated, previousNumber);
+        });
+    }
+
+    /**
+     * Retrieves the accounts with the given IDs, querying each shard once for its share of the IDs.
+     */
+    public List<AccountView> findViewsByIdIn(Collection<Long> ids) {
+        return findViewsIn(ids, id -> shards.ofAccount(id).index(), "id");
+    }
+
+    /**
+     * Retrieves the accounts with the given numbers, querying each shard once for its share of the numbers.
+     */
+    public List<AccountView> findViewsByAccountNumberIn(Collection<String> accountNumbers) {
+        return findViewsIn(accountNumbers, accountNumber -> shards.ofAccountNumber(accountNumber).index(),
+                "account_number");
+    }
+
+    /**
+     * Retrieves up to {@code limit} accounts with an ID greater than the given one, in ID order: the same
+     * number of accounts is read from every shard in parallel and the shards' pages are merged.
+     */
+    public List<AccountView> findViewsByIdGreaterThan(long afterId, int limit) {
+        List<List<AccountView>> pages = shards.scatter(shard -> page(shard, afterId, limit));
+        return merge(pages, limit);
+    }
+
+    /**
+     * Retrieves up to {@code limit} journal entries of an account after the given sequence number.
+     */
+    public List<AccountTransaction> findTransactions(Long id, long afterSequence, int limit) {
+        return shards.ofAccount(id).jdbcTemplate().query(
+                "select id, account_id, sequence_number, type, amount, created_at from account_transaction " +
+                        "where account_id = ? and sequence_number > ? order by sequence_number limit ?",
+                ENTRY, id, afterSequence, limit);
+    }
+
+    /**
+     * Passes every account to the consumer in ID order. Every shard is read in keyset pages of
+     * {@link ShardingProperties#getStreamBatchSize()} accounts, the next page fetched in the background while
+     * the current one is consumed, and the shards are merged by ID; memory stays at two pages per shard.
+     *
+     * @param consumer receives the accounts, one at a time.
+     */
+    public void forEachOrderedById(Consumer<AccountView> consumer) {
+        PriorityQueue<ShardCursor> cursors = new PriorityQueue<>(Comparator.comparingLong(ShardCursor::id));
+        List<ShardCursor> started = new ArrayList<>(shards.count());
+        for (int index = 0; index < shards.count(); index++) {
+            started.add(new ShardCursor(shards.get(index)));
+        }
+        for (ShardCursor cursor : started) {
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        while (!cursors.isEmpty()) {
+            ShardCursor cursor = cursors.poll();
+            consumer.accept(cursor.take());
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+    }
+
+    /**
+     * Publishes a change inside the shard transaction that writes it, so changes of one account are published
+     * in the order they were committed.
+     */
+    private void publish(Long id, BalanceChangeDTO.Type type, long amount, Long balance) {
+        balanceChangeFeed.ifPresent(feed -> feed.publish(id, type, amount, balance));
+    }
+
+    private <K> List<AccountView> findViewsIn(Collection<K> keys, Function<K, Integer> shardOf, String column) {
+        Map<Integer, List<K>> keysByShard = new HashMap<>();
+        for (K key : new LinkedHashSet<>(keys)) {
+            keysByShard.computeIfAbsent(shardOf.apply(key), index -> new ArrayList<>()).add(key);
+        }
+        List<List<AccountView>> found = shards.scatter(shard -> {
+            List<K> shardKeys = keysByShard.get(shard.index());
+            if (shardKeys == null) {
+                return List.<AccountView>of();
+            }
+            return shard.jdbcTemplate().query(SELECT_VIEW + "where " + column + " in ("
+                    + String.join(", ", Collections.nCopies(shardKeys.size(), "?")) + ")", VIEW, shardKeys.toArray());
+        });
+        return found.stream().flatMap(List::stream).toList();
+    }
+
+    private static List<AccountView> page(AccountShards.Shard shard, long afterId, int limit) {
+        return shard.jdbcTemplate().query(SELECT_VIEW + "where id > ? order by id limit ?", VIEW, afterId, limit);
+    }
+
+    private static List<AccountView> merge(List<List<AccountView>> pages, int limit) {
+        List<AccountView> merged = new ArrayList<>(limit);
+        int[] positions = new int[pages.size()];
+        while (merged.size() < limit) {
+            int next = -1;
+            for (int shard = 0; shard < pages.size(); shard++) {
+                if (positions[shard] < pages.get(shard).size() && (next < 0
+                        || pages.get(shard).get(positions[shard]).id() < pages.get(next).get(positions[next]).id())) {
+                    next = shard;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            merged.add(pages.get(next).get(positions[next]++));
+        }
+        return merged;
+    }
+
+    private static LockedAccount lock(JdbcTemplate jdbcTemplate, Long id) {
+        List<LockedAccount> accounts = jdbcTemplate.query("select id, account_number, name, balance, " +
+                "journal_sequence from account where id = ? for update", LOCKED, id);
+        if (accounts.isEmpty()) {
+            throw notFound(id);
+        }
+        return accounts.get(0);
+    }
+
+    private static LockedAccount locked(Map<Long, LockedAccount> accounts, Long id) {
+        LockedAccount account = accounts.get(id);
+        if (account == null) {
+            throw notFound(id);
+        }
+        return account;
+    }
+
+    private static EntityNotFoundException notFound(Long id) {
+        log.error("Account not found with ID: {}", id);
+        return new EntityNotFoundException("Account not found with ID: " + id);
+    }
+
+    /**
+     * Writes the balances and journal sequences of the accounts and inserts their pending journal entries.
+     */
+    private static void write(JdbcTemplate jdbcTemplate, Collection<LockedAccount> accounts) {
+        List<LockedAccount> changed = accounts.stream().filter(account -> !account.entries.isEmpty()).toList();
+        if (changed.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("update account set balance = ?, journal_sequence = ?, version = version + 1 " +
+                "where id = ?", changed, changed.size(), (ps, account) -> {
+            ps.setLong(1, account.balance);
+            ps.setLong(2, account.journalSequence);
+            ps.setLong(3, account.id);
+        });
+        insertEntries(jdbcTemplate, changed.stream().flatMap(account -> account.entries.stream()).toList());
+        changed.forEach(account -> account.entries.clear());
+    }
+
+    private static void insertEntries(JdbcTemplate jdbcTemplate, List<AccountTransaction> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("insert into account_transaction(id, account_id, sequence_number, type, amount, " +
+                "created_at) values (?, ?, ?, ?, ?, ?)", entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getId());
+            ps.setLong(2, entry.getAccountId());
+            ps.setLong(3, entry.getSequenceNumber());
+            ps.setString(4, entry.getType().name());
+            ps.setLong(5, entry.getAmount());
+            ps.setObject(6, entry.getCreatedAt());
+        });
+    }
+
+    /**
+     * The result of an update.
+     *
+     * @param account        the updated account.
+     * @param previousNumber the account number before the update.
+     */
+    public record Update(AccountDTO account, String previousNumber) {
+    }
+
+    /**
+     * Commits the transaction of a connection to a shard.
+     */
+    @FunctionalInterface
+    interface ShardCommit {
+
+        void commit(AccountShards.Shard shard, Connection connection) throws SQLException;
+    }
+
+    /**
+     * An account row read under lock, with the journal entries of its changes not yet written.
+     */
+    private static final class LockedAccount {
+
+        private final long id;
+        private final List<AccountTransaction> entries = new ArrayList<>(2);
+        private String accountNumber;
+        private String name;
+        private long balance;
+        private long journalSequence;
+
+        private LockedAccount(long id, String accountNumber, String name, long balance, long journalSequence) {
+            this.id = id;
+            this.accountNumber = accountNumber;
+            this.name = name;
+            this.balance = balance;
+            this.journalSequence = journalSequence;
+        }
+
+        private void change(AccountShards.Shard shard, JdbcTemplate jdbcTemplate, TransactionType type, long amount) {
+            balance = Money.add(balance, amount);
+            journalSequence++;
+            AccountTransaction entry = new AccountTransaction();
+            entry.setId(shard.nextTransactionId(jdbcTemplate));
+            entry.setAccountId(id);
+            entry.setSequenceNumber(journalSequence);
+            entry.setType(type);
+            entry.setAmount(amount);
+            entry.setCreatedAt(Instant.now());
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * The part of a transfer batch on one shard: a connection of its own, outside Spring's transaction
+     * management, so it can be prepared and committed or rolled back separately from the other shards.
+     */
+    private static final class Participant {
+
+        private final AccountShards.Shard shard;
+        private final Connection connection;
+        private final JdbcTemplate jdbcTemplate;
+        private List<LockedAccount> accounts = List.of();
+        /**
+         * Whether the part was committed from another connection, behind the back of this one.
+         */
+        private boolean resolved;
+        /**
+         * Whether the part is decided but could not be committed.
+         */
+        private boolean inDoubt;
+
+        private Participant(AccountShards.Shard shard) {
+            this.shard = shard;
+            this.connection = DataSourceUtils.getConnection(shard.dataSource());
+            this.jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            try {
+                jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                    con.setAutoCommit(false);
+                    return null;
+                });
+            } catch (RuntimeException ex) {
+                close();
+                throw ex;
+            }
+        }
+
+        private List<LockedAccount> lock(Collection<Long> ids) {
+            accounts = jdbcTemplate.query("select id, account_number, name, balance, journal_sequence from account " +
+                            "where id in (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") " +
+                            "order by id for update", LOCKED, ids.toArray());
+            return accounts;
+        }
+
+        private void commit(ShardCommit commit) {
+            jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                commit.commit(shard, con);
+                return null;
+            });
+        }
+
+        private void rollback() {
+            try {
+                jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                    con.rollback();
+                    return null;
+                });
+            } catch (RuntimeException ex) {
+                log.warn("Could not roll back the transfer on shard {}", shard.index(), ex);
+            }
+        }
+
+        /**
+         * Returns the connection to the pool. A connection whose transaction was committed from another one is
+         * evicted instead, so the pool neither rolls it back nor reuses it; one whose decided part is still in
+         * doubt is kept open, as closing it would roll the part back.
+         */
+        private void close() {
+            if (inDoubt) {
+                return;
+            }
+            if (resolved) {
+                shard.dataSource().evictConnection(connection);
+                return;
+            }
+            DataSourceUtils.releaseConnection(connection, shard.dataSource());
+        }
+    }
+
+    /**
+     * Position of the account stream in one shard, with the next page already being read.
+     */
+    private final class ShardCursor {
+
+        private final AccountShards.Shard shard;
+        private List<AccountView> page = List.of();
+        private int position;
+        private CompletableFuture<List<AccountView>> next;
+
+        private ShardCursor(AccountShards.Shard shard) {
+            this.shard = shard;
+            this.next = shards.submit(shard, s -> page(s, 0, properties.getStreamBatchSize()));
+        }
+
+        /**
+         * Moves to the next account, waiting for the next page if the current one is used up.
+         *
+         * @return whether there is a next account.
+         */
+        private boolean advance() {
+            if (position < page.size()) {
+                return true;
+            }
+            if (next == null) {
+                return false;
+            }
+            page = AccountShards.join(next);
+            position = 0;
+            if (page.size() == properties.getStreamBatchSize()) {
+                long afterId = page.get(page.size() - 1).id();
+                next = shards.submit(shard, s -> page(s, afterId, properties.getStreamBatchSize()));
+            } else {
+                next = null;
+            }
+            return !page.isEmpty();
+        }
+
+        private long id() {
+            return page.get(position).id();
+        }
+
+        private AccountView take() {
+            return page.get(position++);
+        }
+    }
+}
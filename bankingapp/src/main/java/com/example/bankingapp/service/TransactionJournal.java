@@ -0,0 +1,63 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.AccountTransaction;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.repository.AccountTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Appends balance changes to the transaction journal.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionJournal {
+
+    private final AccountTransactionRepository accountTransactionRepository;
+    private final BalanceSnapshotService balanceSnapshotService;
+
+    /**
+     * Records a balance change with the next sequence number of the account.
+     * Must be called after the balance was changed, in the same transaction and with the account row locked
+     * (or the account just created), so that sequence numbers of an account never collide.
+     * The first change of an account created before the journal existed is preceded by an opening entry
+     * with the balance before the change.
+     *
+     * @param account the managed account whose balance changed.
+     * @param type    the kind of change.
+     * @param amount  the signed change in minor units.
+     */
+    public void append(Account account, TransactionType type, long amount) {
+        if (account.getJournalSequence() == 0 && type != TransactionType.OPENING) {
+            long opening = Money.subtract(account.getBalance(), amount);
+            if (opening != 0) {
+                append(account, TransactionType.OPENING, opening);
+            }
+        }
+        account.setJournalSequence(account.getJournalSequence() + 1);
+        AccountTransaction entry = new AccountTransaction();
+        entry.setAccountId(account.getId());
+        entry.setSequenceNumber(account.getJournalSequence());
+        entry.setType(type);
+        entry.setAmount(amount);
+        entry.setCreatedAt(Instant.now());
+        accountTransactionRepository.save(entry);
+        balanceSnapshotService.recordOperation(account.getId());
+    }
+
+    /**
+     * Records the opening balance of a new account; accounts opened with a zero balance start with an
+     * empty journal. Must be called in the transaction that persists the account.
+     *
+     * @param account the account that was just persisted.
+     */
+    public void appendOpening(Account account) {
+        if (account.getBalance() != 0) {
+            append(account, TransactionType.OPENING, account.getBalance());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+-- Schema of the account, journal, snapshot and idempotency tables as Hibernate generated it before
+-- migrations were introduced. Databases created before that, by Hibernate or by an older version of the
+-- application, already hold some of these objects; every statement therefore only adds what is missing,
+-- so this migration brings any of them to the same schema instead of baselining past it.
+
+create sequence if not exists account_seq start with 1 increment by 50;
+create sequence if not exists account_transaction_seq start with 1 increment by 50;
+create sequence if not exists balance_snapshot_seq start with 1 increment by 50;
+
+create table if not exists account (
+    id               bigint       not null,
+    account_number   varchar(255) not null,
+    balance          bigint       not null,
+    journal_sequence bigint       default 0 not null,
+    name             varchar(255),
+    version          bigint       default 0 not null,
+    constraint pk_account primary key (id),
+    constraint uk_account_number unique (account_number)
+);
+
+alter table account add column if not exists journal_sequence bigint default 0 not null;
+alter table account add column if not exists version bigint default 0 not null;
+
+create table if not exists account_transaction (
+    id              bigint                   not null,
+    account_id      bigint                   not null,
+    amount          bigint                   not null,
+    created_at      timestamp(6) with time zone not null,
+    sequence_number bigint                   not null,
+    type            enum ('ADJUSTMENT', 'DEPOSIT', 'NET_CHANGE', 'OPENING', 'TRANSFER_IN', 'TRANSFER_OUT',
+                          'WITHDRAWAL') not null,
+    constraint pk_account_transaction primary key (id),
+    constraint uk_account_transaction_sequence unique (account_id, sequence_number)
+);
+
+create table if not exists balance_snapshot (
+    id              bigint                   not null,
+    account_id      bigint                   not null,
+    as_of           timestamp(6) with time zone not null,
+    balance         bigint                   not null,
+    sequence_number bigint                   not null,
+    constraint pk_balance_snapshot primary key (id),
+    constraint uk_balance_snapshot_sequence unique (account_id, sequence_number)
+);
+
+create index if not exists ix_balance_snapshot_as_of on balance_snapshot (account_id, as_of);
+
+create table if not exists idempotency_record (
+    idempotency_key varchar(64)              not null,
+    account_id      bigint                   not null,
+    amount          bigint                   not null,
+    created_at      timestamp(6) with time zone not null,
+    outcome         enum ('APPLIED', 'INSUFFICIENT_FUNDS') not null,
+    type            enum ('ADJUSTMENT', 'DEPOSIT', 'NET_CHANGE', 'OPENING', 'TRANSFER_IN', 'TRANSFER_OUT',
+                          'WITHDRAWAL') not null,
+    constraint pk_idempotency_record primary key (idempotency_key)
+);
+
+create index if not exists ix_idempotency_record_created_at on idempotency_record (created_at);
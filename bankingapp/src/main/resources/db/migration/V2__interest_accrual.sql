@@ -0,0 +1,21 @@
+-- Journal entry types of the end-of-day accrual and its per-partition checkpoints.
+--
+-- Hibernate (ddl-auto: update) may already have created accrual_checkpoint on a database that predates this
+-- migration, but never widens the enum columns; this migration does both.
+
+alter table account_transaction alter column type set data type
+    enum ('ADJUSTMENT', 'DEPOSIT', 'FEE', 'INTEREST', 'NET_CHANGE', 'OPENING', 'TRANSFER_IN', 'TRANSFER_OUT',
+          'WITHDRAWAL');
+
+alter table idempotency_record alter column type set data type
+    enum ('ADJUSTMENT', 'DEPOSIT', 'FEE', 'INTEREST', 'NET_CHANGE', 'OPENING', 'TRANSFER_IN', 'TRANSFER_OUT',
+          'WITHDRAWAL');
+
+create table if not exists accrual_checkpoint (
+    business_date   date    not null,
+    partition_start bigint  not null,
+    partition_end   bigint  not null,
+    last_account_id bigint  not null,
+    completed       boolean not null,
+    constraint pk_accrual_checkpoint primary key (business_date, partition_start)
+);
@@ -0,0 +1,13 @@
+-- Balances are stored as whole minor units. A database created before that still holds them as floating-point
+-- major units, e.g. 10.0 for 10.00, which would otherwise be read as 0.10; they are rounded to minor units and
+-- the column becomes a bigint. Databases that already store minor units in a bigint column are left as they are.
+-- The conversion is decided by the column type alone: a floating-point or decimal column must still hold major
+-- units when V3 runs. Balances that were multiplied by hand without changing the column type would be multiplied
+-- again, so such a database has to be restored to major units (or its column changed to bigint) first.
+
+update account set balance = round(balance * 100)
+where (select data_type from information_schema.columns
+       where table_schema = current_schema and table_name = 'ACCOUNT' and column_name = 'BALANCE')
+      in ('DOUBLE PRECISION', 'REAL', 'DECFLOAT', 'NUMERIC');
+
+alter table account alter column balance set data type bigint;
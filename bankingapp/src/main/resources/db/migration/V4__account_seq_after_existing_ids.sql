@@ -0,0 +1,8 @@
+-- Account IDs come from account_seq, which V1 creates starting at 1. A database created before that assigned
+-- IDs with an identity column, so the sequence is moved past them; Hibernate hands out the 50 IDs below each
+-- sequence value, hence the margin. A sequence that is already further ahead is left where it is.
+
+alter sequence account_seq restart with greatest(
+        (select coalesce(max(id) + 51, 1) from account),
+        (select base_value from information_schema.sequences
+         where sequence_schema = current_schema and sequence_name = 'ACCOUNT_SEQ'));
@@ -0,0 +1,9 @@
+-- Commit decisions of cross-shard transfers. Only the first shard, which coordinates the transfers, uses
+-- the table: a transfer prepared on all of its shards is committed once its row is inserted here, and a
+-- prepared transfer without a row is rolled back when the shards are recovered.
+
+create table shard_transfer (
+    name       varchar(64)              not null,
+    decided_at timestamp(6) with time zone not null,
+    constraint pk_shard_transfer primary key (name)
+);
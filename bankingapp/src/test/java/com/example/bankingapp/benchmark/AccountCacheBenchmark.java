@@ -0,0 +1,81 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (including p99) of {@code getAccount} with and without the account cache,
+ * reading uniformly random accounts that all fit into the cache.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class AccountCacheBenchmark {
+
+    private static final int ACCOUNTS = 5_000;
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:account-cache-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bankingapp.cache.enabled=" + cacheEnabled);
+        accountService = context.getBean(AccountService.class);
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            AccountDTO account = new AccountDTO();
+            account.setAccountNumber(String.valueOf(1_000_000_000L + i));
+            account.setName("Benchmark " + i);
+            account.setBalance(BigDecimal.TEN);
+            long id = accountService.createAccount(account).getId();
+            if (i == 0) {
+                firstId = id;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDTO getAccount() {
+        return accountService.getAccount(firstId + ThreadLocalRandom.current().nextInt(ACCOUNTS));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deposit throughput of 8 threads spread over 1, 10 or 1000 accounts under each concurrency strategy.
+ * The retries per deposit are printed at the end of each trial, from the {@code account.concurrency.retries}
+ * counter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountContentionBenchmark {
+
+    @Param({"pessimistic", "optimistic"})
+    private String strategy;
+
+    @Param({"1", "10", "1000"})
+    private int accounts;
+
+    private final LongAdder deposits = new LongAdder();
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private MeterRegistry meterRegistry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:account-contention-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF",
+                        "--bankingapp.concurrency.strategy=" + strategy,
+                        "--bankingapp.concurrency.max-attempts=1000");
+        accountService = context.getBean(AccountService.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+        context.getBean(JdbcTemplate.class).update("INSERT INTO account(id, account_number, name, balance) " +
+                "SELECT X, CAST(1000000000 + X AS VARCHAR), 'Benchmark', 0 FROM SYSTEM_RANGE(1, ?)", accounts);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        double retries = meterRegistry.counter("account.concurrency.retries", "strategy", strategy).count();
+        System.out.printf("%n%s, %d accounts: %.0f deposits, %.4f retries per deposit%n",
+                strategy, accounts, deposits.doubleValue(), retries / deposits.doubleValue());
+        context.close();
+    }
+
+    @Benchmark
+    public void deposit() {
+        accountService.deposit(ThreadLocalRandom.current().nextLong(1, accounts + 1), 1);
+        deposits.increment();
+    }
+}
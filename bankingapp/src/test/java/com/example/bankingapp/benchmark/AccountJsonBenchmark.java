@@ -0,0 +1,92 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.dto.AccountDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization and deserialization of {@link AccountDTO}, alone and as a list of {@code size} accounts,
+ * with an {@link ObjectMapper} configured like the one Spring MVC uses for the request and response bodies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountJsonBenchmark {
+
+    @Param({"100"})
+    private int size;
+
+    private ObjectWriter accountWriter;
+    private ObjectWriter listWriter;
+    private ObjectReader accountReader;
+    private ObjectReader listReader;
+    private AccountDTO account;
+    private List<AccountDTO> accounts;
+    private byte[] accountJson;
+    private byte[] listJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        accountWriter = objectMapper.writerFor(AccountDTO.class);
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, AccountDTO.class));
+        accountReader = objectMapper.readerFor(AccountDTO.class);
+        listReader = objectMapper.readerForListOf(AccountDTO.class);
+
+        accounts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            AccountDTO dto = new AccountDTO();
+            dto.setId((long) i + 1);
+            dto.setAccountNumber(String.valueOf(1_000_000_000L + i));
+            dto.setName("Account " + i);
+            dto.setBalance(new BigDecimal("12345.67"));
+            accounts.add(dto);
+        }
+        account = accounts.get(0);
+        accountJson = accountWriter.writeValueAsBytes(account);
+        listJson = listWriter.writeValueAsBytes(accounts);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return accountWriter.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(accounts);
+    }
+
+    @Benchmark
+    public AccountDTO deserialize() throws Exception {
+        return accountReader.readValue(accountJson);
+    }
+
+    @Benchmark
+    public List<AccountDTO> deserializeList() throws Exception {
+        return listReader.readValue(listJson);
+    }
+}
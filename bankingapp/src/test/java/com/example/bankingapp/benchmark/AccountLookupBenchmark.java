@@ -0,0 +1,77 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving an account number to its ID as the table grows, through the unique index
+ * and through the number map of the account cache. Lookups are spread over the first 10k numbers,
+ * so the cached working set is the same at every table size; each of them is resolved once before measuring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountLookupBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int accounts;
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String[] numbers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:account-lookup-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bankingapp.cache.enabled=" + cacheEnabled);
+        accountService = context.getBean(AccountService.class);
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO account(id, account_number, name, balance) " +
+                        "SELECT X, LPAD(X, 10, '0'), CONCAT('Account ', X), X FROM SYSTEM_RANGE(1, ?)", accounts);
+        numbers = new String[Math.min(accounts, 10_000)];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = String.format("%010d", i + 1);
+            accountService.resolveId(numbers[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long resolveId() {
+        return accountService.resolveId(numbers[ThreadLocalRandom.current().nextInt(numbers.length)]);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.example.bankingapp.mapper.AccountMapperImpl;
+import com.example.bankingapp.model.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AccountMapper} conversions between entities and DTOs, of a single account and of a list of
+ * {@code size} accounts. There is no list variant of {@code toEntity}, so the list of DTOs is mapped one by one,
+ * as the bulk import does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountMapperBenchmark {
+
+    @Param({"100"})
+    private int size;
+
+    private final AccountMapper accountMapper = new AccountMapperImpl();
+
+    private Account account;
+    private AccountDTO accountDTO;
+    private List<Account> accounts;
+    private List<AccountDTO> accountDTOs;
+
+    @Setup
+    public void setUp() {
+        accounts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Account entity = new Account();
+            entity.setId((long) i + 1);
+            entity.setAccountNumber(String.valueOf(1_000_000_000L + i));
+            entity.setName("Account " + i);
+            entity.setBalance(1_234_567L + i);
+            accounts.add(entity);
+        }
+        accountDTOs = accountMapper.toDTO(accounts);
+        account = accounts.get(0);
+        accountDTO = accountDTOs.get(0);
+    }
+
+    @Benchmark
+    public AccountDTO toDTO() {
+        return accountMapper.toDTO(account);
+    }
+
+    @Benchmark
+    public List<AccountDTO> toDTOList() {
+        return accountMapper.toDTO(accounts);
+    }
+
+    @Benchmark
+    public Account toEntity() {
+        return accountMapper.toEntity(accountDTO);
+    }
+
+    @Benchmark
+    public void toEntityList(Blackhole blackhole) {
+        for (AccountDTO dto : accountDTOs) {
+            blackhole.consume(accountMapper.toEntity(dto));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.AccountView;
+import com.example.bankingapp.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading one account and a page of 100 accounts into DTOs, through managed entities as the read endpoints
+ * did before, and through {@link AccountView} projections as they do now. Run with {@code -prof gc} to
+ * compare the allocation per read.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountReadBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int PAGE_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+    private AccountRepository accountRepository;
+    private AccountMapper accountMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:account-read-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        accountRepository = context.getBean(AccountRepository.class);
+        accountMapper = context.getBean(AccountMapper.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnlyTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTemplate.setReadOnly(true);
+        context.getBean(JdbcTemplate.class).update("INSERT INTO account(id, account_number, name, balance) " +
+                "SELECT X, CAST(1000000000 + X AS VARCHAR), CONCAT('Account ', X), X FROM SYSTEM_RANGE(1, ?)",
+                ACCOUNTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDTO detailEntity() {
+        return accountMapper.toDTO(accountRepository.findById(randomId()).orElseThrow());
+    }
+
+    @Benchmark
+    public AccountDTO detailProjection() {
+        return accountMapper.toDTO(accountRepository.findViewById(randomId()).orElseThrow());
+    }
+
+    @Benchmark
+    public List<AccountDTO> pageEntity() {
+        long afterId = randomId() % (ACCOUNTS - PAGE_SIZE);
+        return readOnlyTemplate.execute(status -> {
+            List<Account> accounts = entityManager
+                    .createQuery("select a from Account a where a.id > :id order by a.id", Account.class)
+                    .setParameter("id", afterId)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            return accountMapper.toDTO(accounts);
+        });
+    }
+
+    @Benchmark
+    public List<AccountDTO> pageProjection() {
+        long afterId = randomId() % (ACCOUNTS - PAGE_SIZE);
+        return readOnlyTemplate.execute(status -> {
+            List<AccountView> accounts = accountRepository.findViewsByIdGreaterThan(afterId, Limit.of(PAGE_SIZE));
+            return accountMapper.toDTOs(accounts);
+        });
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, ACCOUNTS + 1);
+    }
+}
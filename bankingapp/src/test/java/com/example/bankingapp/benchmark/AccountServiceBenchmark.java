@@ -0,0 +1,132 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.AccountPageDTO;
+import com.example.bankingapp.model.Transfer;
+import com.example.bankingapp.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link AccountService} operations against embedded H2 with the default settings, each on a random one of
+ * 10k accounts, and the {@code contention} group, in which 4 threads deposit into and 4 threads withdraw from
+ * the same 10 accounts. Every account starts with enough money that no withdrawal fails.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountServiceBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int CONTENDED_ACCOUNTS = 10;
+
+    private final AtomicLong nextNumber = new AtomicLong(2_000_000_000L);
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:account-service-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        accountService = context.getBean(AccountService.class);
+        context.getBean(JdbcTemplate.class).update("INSERT INTO account(id, account_number, name, balance) " +
+                "SELECT X, CAST(1000000000 + X AS VARCHAR), 'Benchmark', 1000000000000 FROM SYSTEM_RANGE(1, ?)",
+                ACCOUNTS);
+        // keep the IDs of created accounts, handed out in pooled blocks, clear of the inserted ones
+        context.getBean(JdbcTemplate.class).execute("ALTER SEQUENCE account_seq RESTART WITH " + 2 * ACCOUNTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDTO createAccount() {
+        AccountDTO account = new AccountDTO();
+        account.setAccountNumber(String.valueOf(nextNumber.getAndIncrement()));
+        account.setName("Benchmark");
+        account.setBalance(BigDecimal.TEN);
+        return accountService.createAccount(account);
+    }
+
+    @Benchmark
+    public AccountDTO getAccount() {
+        return accountService.getAccount(randomId(ACCOUNTS));
+    }
+
+    @Benchmark
+    public AccountDTO updateAccount() {
+        AccountDTO account = new AccountDTO();
+        account.setName("Renamed");
+        return accountService.updateAccount(randomId(ACCOUNTS), account);
+    }
+
+    @Benchmark
+    public void deposit() {
+        accountService.deposit(randomId(ACCOUNTS), 1);
+    }
+
+    @Benchmark
+    public void withdraw() {
+        accountService.withdraw(randomId(ACCOUNTS), 1);
+    }
+
+    @Benchmark
+    public void transfer() {
+        long fromId = randomId(ACCOUNTS);
+        accountService.transfer(new Transfer(fromId, fromId % ACCOUNTS + 1, 1));
+    }
+
+    @Benchmark
+    public AccountPageDTO getPage() {
+        return accountService.getPage(null, 100);
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(4)
+    public void contendedDeposit() {
+        accountService.deposit(randomId(CONTENDED_ACCOUNTS), 1);
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(4)
+    public void contendedWithdraw() {
+        accountService.withdraw(randomId(CONTENDED_ACCOUNTS), 1);
+    }
+
+    private static long randomId(int accounts) {
+        return ThreadLocalRandom.current().nextLong(1, accounts + 1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.example.bankingapp.model.Account;
+import com.example.bankingapp.repository.AccountRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-to-first-byte and full transfer time of the streaming {@code GET /api/account} against the former
+ * approach of materializing all entities and DTOs before serializing them in one shot.
+ * The peak heap usage of every iteration is printed after it completes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class AccountStreamingBenchmark {
+
+    @Param({"1000000"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private AccountRepository accountRepository;
+    private AccountMapper accountMapper;
+    private ObjectMapper objectMapper;
+    private URI uri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:streaming-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        accountRepository = context.getBean(AccountRepository.class);
+        accountMapper = context.getBean(AccountMapper.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO account(id, account_number, name, balance) " +
+                        "SELECT X, LPAD(X, 10, '0'), CONCAT('Account ', X), X FROM SYSTEM_RANGE(1, ?)", accounts);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        uri = URI.create("http://localhost:" + port + "/api/account");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakHeap() {
+        System.gc();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeakHeap() {
+        long peak = heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.out.printf(" [peak heap %d MB]", peak / (1024 * 1024));
+    }
+
+    @Benchmark
+    public int streamingTimeToFirstByte() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            return in.read();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Benchmark
+    public long streamingFullResponse() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Benchmark
+    public int materializedFullResponse() throws Exception {
+        List<Account> list = new ArrayList<>();
+        accountRepository.findAll().forEach(list::add);
+        return objectMapper.writeValueAsBytes(accountMapper.toDTO(list)).length;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.BalanceDTO;
+import com.example.bankingapp.service.BalanceSnapshotService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a balance-as-of query for one account as its history grows, answered from the nearest snapshot
+ * and the journal tail, against summing the whole history up to the requested time.
+ * The history has one entry per millisecond and a snapshot every 100 entries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BalanceAsOfBenchmark {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Param({"1000", "100000", "1000000"})
+    private int history;
+
+    private ConfigurableApplicationContext context;
+    private BalanceSnapshotService balanceSnapshotService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:balance-as-of-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        balanceSnapshotService = context.getBean(BalanceSnapshotService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO account(id, account_number, name, balance, journal_sequence) " +
+                "VALUES (1, '1000000001', 'Benchmark', ?, ?)", history, history);
+        jdbcTemplate.update("INSERT INTO account_transaction(id, account_id, sequence_number, type, amount, created_at) " +
+                "SELECT X, 1, X, 'DEPOSIT', 1, DATEADD(MILLISECOND, X, CAST(? AS TIMESTAMP WITH TIME ZONE)) FROM SYSTEM_RANGE(1, ?)",
+                Timestamp.from(START), history);
+        jdbcTemplate.update("INSERT INTO balance_snapshot(id, account_id, sequence_number, balance, as_of) " +
+                "SELECT X / 100, 1, X, X, DATEADD(MILLISECOND, X, CAST(? AS TIMESTAMP WITH TIME ZONE)) FROM SYSTEM_RANGE(100, ?, 100)",
+                Timestamp.from(START), history);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BalanceDTO asOfFromSnapshot() {
+        return balanceSnapshotService.getBalanceAsOf(1L, randomInstant());
+    }
+
+    @Benchmark
+    public Long asOfFromFullHistory() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(amount), 0) FROM account_transaction " +
+                "WHERE account_id = 1 AND created_at <= ?", Long.class, Timestamp.from(randomInstant()));
+    }
+
+    private Instant randomInstant() {
+        return START.plusMillis(ThreadLocalRandom.current().nextLong(history));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.config.FeedProperties;
+import com.example.bankingapp.dto.BalanceChangeDTO;
+import com.example.bankingapp.service.BalanceChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fan-out of the balance change feed: four writer threads publish changes while {@code subscribers} subscriber
+ * threads take them, each taking the JSON form of every change it receives as if writing it to its client.
+ * Subscribers either follow all accounts, or one account each ({@code filtered}), which measures the cost
+ * of skipping the changes of other accounts. The score is the rate of published changes; the deliveries per
+ * second and the number of catch-ups of subscribers that fell behind are printed at the end of each trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BalanceChangeFeedBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+
+    @Param({"100", "500"})
+    private int subscribers;
+
+    @Param({"false", "true"})
+    private boolean filtered;
+
+    private BalanceChangeFeed feed;
+    private final List<BalanceChangeFeed.Subscription> subscriptions = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder catchUps = new LongAdder();
+    private long startNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FeedProperties properties = new FeedProperties();
+        properties.setMaxSubscribers(subscribers);
+        feed = new BalanceChangeFeed(properties, Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry());
+        for (int i = 0; i < subscribers; i++) {
+            BalanceChangeFeed.Subscription subscription = feed.subscribe(null,
+                    filtered ? Set.of((long) i % ACCOUNTS + 1) : null);
+            subscriptions.add(subscription);
+            Thread thread = new Thread(() -> consume(subscription), "subscriber-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        startNanos = System.nanoTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        subscriptions.forEach(BalanceChangeFeed.Subscription::close);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.printf("%n%d subscribers%s: %.0f deliveries/s, %d catch-ups%n", subscribers,
+                filtered ? " of one account each" : "", delivered.sum() / seconds, catchUps.sum());
+    }
+
+    @Benchmark
+    public void publish() {
+        feed.publish(ThreadLocalRandom.current().nextLong(1, ACCOUNTS + 1), BalanceChangeDTO.Type.DEPOSIT, 100, 10_000L);
+    }
+
+    private void consume(BalanceChangeFeed.Subscription subscription) {
+        while (!subscription.isClosed()) {
+            for (BalanceChangeFeed.Change change : subscription.next(1024, TimeUnit.MILLISECONDS.toNanos(100))) {
+                if (change.dto().getType() == BalanceChangeDTO.Type.CATCH_UP) {
+                    catchUps.increment();
+                } else if (change.json().length > 0) {
+                    delivered.increment();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.AccountBatchDTO;
+import com.example.bankingapp.service.AccountBatchService;
+import com.example.bankingapp.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up 100 random accounts out of 100k as one batch, sequentially or with chunks of 25 queried in
+ * parallel, compared to 100 individual {@code getAccount} calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchGetBenchmark {
+
+    private static final int ACCOUNTS = 100_000;
+    private static final int LOOKUPS = 100;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private AccountBatchService accountBatchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:batch-get-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bankingapp.batch-get.parallel=" + parallel,
+                        "--bankingapp.batch-get.chunk-size=" + (parallel ? 25 : 500));
+        accountService = context.getBean(AccountService.class);
+        accountBatchService = context.getBean(AccountBatchService.class);
+        context.getBean(JdbcTemplate.class).update("INSERT INTO account(id, account_number, name, balance) " +
+                "SELECT X, CAST(1000000000 + X AS VARCHAR), 'Benchmark', X FROM SYSTEM_RANGE(1, ?)", ACCOUNTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountBatchDTO batch() {
+        return accountBatchService.getAccounts(randomIds(), List.of());
+    }
+
+    @Benchmark
+    public void individual(Blackhole blackhole) {
+        for (Long id : randomIds()) {
+            blackhole.consume(accountService.getAccount(id));
+        }
+    }
+
+    private static List<Long> randomIds() {
+        return ThreadLocalRandom.current().longs(LOOKUPS, 1, ACCOUNTS + 1).boxed().toList();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bankingapp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with a baseline one and exits with status 1 if any benchmark got slower
+ * by more than the threshold, in percent. Benchmarks are matched by name, mode and parameters; throughput is
+ * better when higher, every other mode when lower. Benchmarks missing from either file are listed but
+ * never fail the comparison.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark exec:exec@compare -Djmh.baseline=baseline.json -Djmh.threshold=5}
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <result.json> <threshold percent>");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> result = read(Path.of(args[1]));
+        double threshold = Double.parseDouble(args[2]);
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : result.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.printf("NEW         %s: %.3f %s%n", entry.getKey(), after.value(), after.unit());
+                continue;
+            }
+            double change = (after.value() - before.value()) / before.value() * 100;
+            double slowdown = after.higherIsBetter() ? -change : change;
+            boolean regressed = slowdown > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-11s %s: %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "REGRESSION" : "OK",
+                    entry.getKey(), before.value(), after.value(), after.unit(), change);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !result.containsKey(key))
+                .forEach(key -> System.out.printf("MISSING     %s%n", key));
+
+        System.out.printf("%d of %d benchmarks regressed by more than %.1f%%%n", regressions, result.size(), threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            String mode = run.get("mode").asText();
+            String key = run.get("benchmark").asText() + " " + mode + (params.isEmpty() ? "" : " " + params);
+            JsonNode metric = run.get("primaryMetric");
+            scores.put(key, new Score(metric.get("score").asDouble(), metric.get("scoreUnit").asText(),
+                    "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    private record Score(double value, String unit, boolean higherIsBetter) {
+    }
+}
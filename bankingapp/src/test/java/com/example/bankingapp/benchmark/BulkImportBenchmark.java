@@ -0,0 +1,108 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.ImportReportDTO;
+import com.example.bankingapp.service.AccountBulkService;
+import com.example.bankingapp.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to create {@code rows} accounts one by one through {@link AccountService#createAccount} against the
+ * streaming NDJSON import with JDBC batches of {@code batchSize}, on an in-memory and a file-based H2 database.
+ * Rows per second = rows / score.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkImportBenchmark {
+
+    @Param({"20000"})
+    private int rows;
+
+    @Param({"500"})
+    private int batchSize;
+
+    @Param({"mem", "file"})
+    private String database;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private AccountBulkService accountBulkService;
+    private JdbcTemplate jdbcTemplate;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + ("file".equals(database)
+                                ? "jdbc:h2:file:./target/bulk-import-benchmark"
+                                : "jdbc:h2:mem:bulk-import-benchmark;DB_CLOSE_DELAY=-1"),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bankingapp.bulk.batch-size=" + batchSize);
+        accountService = context.getBean(AccountService.class);
+        accountBulkService = context.getBean(AccountBulkService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        StringBuilder rowsBuilder = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            rowsBuilder.append("{\"accountNumber\":\"").append(String.format("%010d", i))
+                    .append("\",\"name\":\"Account ").append(i).append("\",\"balance\":12.34}\n");
+        }
+        ndjson = rowsBuilder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE account");
+    }
+
+    @Benchmark
+    public int createOneByOne() {
+        for (int i = 0; i < rows; i++) {
+            AccountDTO account = new AccountDTO();
+            account.setAccountNumber(String.format("%010d", i));
+            account.setName("Account " + i);
+            account.setBalance(new BigDecimal("12.34"));
+            accountService.createAccount(account);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public ImportReportDTO bulkImport() throws Exception {
+        return accountBulkService.importAccounts(new ByteArrayInputStream(ndjson), MediaType.APPLICATION_NDJSON);
+    }
+}
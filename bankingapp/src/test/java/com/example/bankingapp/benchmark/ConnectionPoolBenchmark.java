@@ -0,0 +1,168 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.model.Transfer;
+import com.example.bankingapp.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of batches of transfers and of account lookups from 32 threads, twice as many as the connections
+ * of the tuned pool, against a file database with the default persistence settings or the {@code production}
+ * profile.
+ * <p>
+ * After every iteration the share of the operation time spent waiting for a connection, taken from the
+ * {@code account.service} and {@code account.service.connection.wait} metrics, and the peak number of threads
+ * queued for a connection, sampled every 10 ms, are printed. The run is reported as starved when a quarter or
+ * more of the time went into waiting, or when a request timed out waiting for a connection.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionPoolBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int TRANSFERS_PER_BATCH = 10;
+    private static final double STARVED_WAIT_SHARE = 0.25;
+
+    @Param({"default", "production"})
+    private String persistence;
+
+    private final AtomicLong peakWaiting = new AtomicLong();
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private MeterRegistry meterRegistry;
+    private ScheduledExecutorService sampler;
+    private double lastServiceNanos;
+    private double lastWaitNanos;
+    private double lastTimeouts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("connection-pool-benchmark");
+        String url = "jdbc:h2:file:" + directory.resolve("db");
+        List<String> args = new ArrayList<>(List.of("--logging.level.root=WARN", "--spring.jpa.show-sql=false"));
+        if (persistence.equals("production")) {
+            args.add("--spring.profiles.active=production");
+            url += ";CACHE_SIZE=65536;QUERY_CACHE_SIZE=64;DB_CLOSE_ON_EXIT=FALSE";
+        }
+        args.add("--spring.datasource.url=" + url);
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        accountService = context.getBean(AccountService.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+        context.getBean(JdbcTemplate.class).update("INSERT INTO account(id, account_number, name, balance) " +
+                "SELECT X, CAST(1000000000 + X AS VARCHAR), 'Benchmark', 1000000000000 FROM SYSTEM_RANGE(1, ?)",
+                ACCOUNTS);
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pool-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> peakWaiting.accumulateAndGet(waiting(), Math::max),
+                10, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        double serviceNanos = totalNanos("account.service");
+        double waitNanos = totalNanos("account.service.connection.wait");
+        double timeouts = count("hikaricp.connections.timeout") + count("db.bulkhead.rejections");
+        double waitShare = (waitNanos - lastWaitNanos) / Math.max(1, serviceNanos - lastServiceNanos);
+        boolean starved = waitShare >= STARVED_WAIT_SHARE || timeouts > lastTimeouts;
+        System.out.printf("%n%s: %.1f%% of the operation time waiting for a connection, peak %d waiting, " +
+                        "%.0f timeouts%s%n", persistence, waitShare * 100, peakWaiting.getAndSet(0),
+                timeouts - lastTimeouts, starved ? " - POOL STARVATION" : "");
+        lastServiceNanos = serviceNanos;
+        lastWaitNanos = waitNanos;
+        lastTimeouts = timeouts;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sampler.shutdownNow();
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void transferBatch() {
+        List<Transfer> transfers = new ArrayList<>(TRANSFERS_PER_BATCH);
+        for (int i = 0; i < TRANSFERS_PER_BATCH; i++) {
+            long fromId = randomId();
+            transfers.add(new Transfer(fromId, fromId % ACCOUNTS + 1, 1));
+        }
+        accountService.transferAll(transfers);
+    }
+
+    @Benchmark
+    public AccountDTO getAccount() {
+        return accountService.getAccount(randomId());
+    }
+
+    private long waiting() {
+        // with the bulkhead in front of the pool, threads queue there; Hikari's pending count also includes
+        // threads that are just being handed a connection
+        return Math.round(meterRegistry.find("db.bulkhead.waiting").gauge() != null
+                ? gauge("db.bulkhead.waiting") : gauge("hikaricp.connections.pending"));
+    }
+
+    private double totalNanos(String name) {
+        return meterRegistry.find(name).timers().stream()
+                .mapToDouble(timer -> timer.totalTime(TimeUnit.NANOSECONDS))
+                .sum();
+    }
+
+    private double count(String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(counter -> counter.count()).sum()
+                + meterRegistry.find(name).functionCounters().stream().mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.find(name).gauges().stream().mapToDouble(gauge -> gauge.value()).sum();
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, ACCOUNTS + 1);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.service.AccountService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (p50/p99) of deposits from 64 threads spread over 1000 accounts, committed in group
+ * commit batches of at most {@code maxBatchSize} operations, against a file-mode H2 database so that every
+ * commit is written to disk. A maximum batch size of 1 commits every deposit on its own, like the default
+ * path does. The commits per second and the mean batch size are printed at the end of each trial.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Threads(64)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GroupCommitBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+
+    @Param({"1", "10", "100", "1000"})
+    private int maxBatchSize;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private DistributionSummary batchSizes;
+    private long startNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("group-commit-benchmark");
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:file:" + directory.resolve("db"),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bankingapp.group-commit.enabled=true",
+                        "--bankingapp.group-commit.max-batch-size=" + maxBatchSize);
+        accountService = context.getBean(AccountService.class);
+        batchSizes = context.getBean(MeterRegistry.class)
+                .summary("account.group.commit.batch.size");
+        context.getBean(JdbcTemplate.class).update("INSERT INTO account(id, account_number, name, balance) " +
+                "SELECT X, CAST(1000000000 + X AS VARCHAR), 'Benchmark', 0 FROM SYSTEM_RANGE(1, ?)", ACCOUNTS);
+        startNanos = System.nanoTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%nmax batch size %d: %.0f commits/s, %.1f deposits per commit%n",
+                maxBatchSize, batchSizes.count() / seconds, batchSizes.mean());
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void deposit() {
+        accountService.deposit(ThreadLocalRandom.current().nextLong(1, ACCOUNTS + 1), 1);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Request throughput and latency of {@code GET /api/account/{id}} with {@code clients} concurrent requests in
+ * flight, served on platform threads (Tomcat's pool of 200) or on virtual threads.
+ * <p>
+ * Each invocation sends one wave of {@code clients} requests at once and waits for all of them; the requests
+ * per second and the p50/p99 latency of every wave are printed. The application runs in its own process, so
+ * the client and the server connections do not share one file descriptor limit. Virtual threads need
+ * Java 21: run the benchmark on it, since the server is started with the same JVM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Timeout(time = 5, timeUnit = TimeUnit.MINUTES)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpLoadBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"10000"})
+    private int clients;
+
+    private final LongAdder failures = new LongAdder();
+
+    private Process server;
+    private HttpClient client;
+    private HttpRequest[] requests;
+    private long[] latencies;
+    private long waveNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            System.out.println("Virtual threads need Java 21, this run measures platform threads twice");
+        }
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx1g",
+                "-cp", System.getProperty("java.class.path"),
+                BankingappApplication.class.getName(),
+                "--server.port=" + port,
+                "--server.tomcat.max-connections=" + (clients + 1000),
+                "--server.tomcat.accept-count=" + clients,
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:http-load-benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--bankingapp.bulkhead.acquire-timeout=2m")
+                .inheritIO()
+                .start();
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofMinutes(1)).build();
+        URI base = URI.create("http://localhost:" + port + "/api/account");
+        awaitStartup(URI.create("http://localhost:" + port + "/actuator/health"));
+
+        String accounts = IntStream.rangeClosed(1, ACCOUNTS)
+                .mapToObj(i -> "{\"accountNumber\":\"" + (1000000000L + i) + "\",\"name\":\"Load\",\"balance\":100}")
+                .collect(Collectors.joining("\n"));
+        HttpResponse<String> imported = client.send(HttpRequest.newBuilder(base.resolve("/api/account/import"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(accounts))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        System.out.println("Imported accounts: " + imported.body());
+        List<Long> ids = Arrays.stream(client.send(HttpRequest.newBuilder(base.resolve("/api/account/export"))
+                                .header("Accept", "application/x-ndjson").build(), HttpResponse.BodyHandlers.ofString())
+                        .body().split("\n"))
+                .filter(line -> !line.isBlank())
+                .map(line -> Long.parseLong(line.replaceAll(".*\"id\":(\\d+).*", "$1")))
+                .toList();
+
+        requests = new HttpRequest[clients];
+        for (int i = 0; i < clients; i++) {
+            Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+            requests[i] = HttpRequest.newBuilder(base.resolve("/api/account/" + id))
+                    .timeout(Duration.ofMinutes(2))
+                    .build();
+        }
+        latencies = new long[clients];
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%nvirtual threads %s: %.0f requests/s, p50 %.1f ms, p99 %.1f ms, failures %d%n",
+                virtualThreads, clients / (waveNanos / 1e9),
+                sorted[clients / 2] / 1e6, sorted[(int) (clients * 0.99)] / 1e6, failures.sumThenReset());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        server.destroy();
+        server.waitFor(30, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void wave() {
+        long waveStart = System.nanoTime();
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            int request = i;
+            long start = System.nanoTime();
+            responses[i] = client.sendAsync(requests[i], HttpResponse.BodyHandlers.discarding())
+                    .handle((response, ex) -> {
+                        latencies[request] = System.nanoTime() - start;
+                        if (ex != null || response.statusCode() != 200) {
+                            failures.increment();
+                        }
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        waveNanos = System.nanoTime() - waveStart;
+    }
+
+    private void awaitStartup(URI health) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(HttpRequest.newBuilder(health).build(), HttpResponse.BodyHandlers.discarding())
+                        .statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Application did not start within 2 minutes");
+    }
+}
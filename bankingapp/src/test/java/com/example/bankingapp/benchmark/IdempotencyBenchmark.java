@@ -0,0 +1,98 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.service.AccountService;
+import com.example.bankingapp.service.IdempotencyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of idempotency keys on the deposit path: a deposit without a key, a first deposit with a new key
+ * (applied and recorded in the same transaction), and a retry of a known key, answered from memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdempotencyBenchmark {
+
+    private static final int KNOWN_KEYS = 10_000;
+
+    private final AtomicLong nextKey = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private IdempotencyService idempotencyService;
+    private Long accountId;
+    private String[] knownKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:idempotency-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        accountService = context.getBean(AccountService.class);
+        idempotencyService = context.getBean(IdempotencyService.class);
+
+        AccountDTO account = new AccountDTO();
+        account.setAccountNumber("1000000000");
+        account.setName("Benchmark");
+        account.setBalance(BigDecimal.ZERO);
+        accountId = accountService.createAccount(account).getId();
+
+        knownKeys = new String[KNOWN_KEYS];
+        for (int i = 0; i < KNOWN_KEYS; i++) {
+            knownKeys[i] = "known-" + i;
+            deposit(knownKeys[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void depositWithoutKey() {
+        accountService.deposit(accountId, 1);
+    }
+
+    @Benchmark
+    public void depositWithNewKey() {
+        deposit("new-" + nextKey.incrementAndGet());
+    }
+
+    @Benchmark
+    public void retryWithKnownKey() {
+        deposit(knownKeys[ThreadLocalRandom.current().nextInt(KNOWN_KEYS)]);
+    }
+
+    private void deposit(String key) {
+        idempotencyService.execute(key, TransactionType.DEPOSIT, accountId, 1,
+                record -> accountService.deposit(accountId, 1, record));
+    }
+}
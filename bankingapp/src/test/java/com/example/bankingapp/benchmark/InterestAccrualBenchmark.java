@@ -0,0 +1,89 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.AccrualReportDTO;
+import com.example.bankingapp.service.InterestAccrualService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of one end-of-day accrual run over {@code accounts} accounts with {@code workers} partitions processed
+ * in parallel; every account earns interest, so every account is locked, updated and journaled. Throughput in
+ * accounts per second is {@code accounts} divided by the score. Each invocation posts the next business date,
+ * so no run finds its accounts already posted. The database is file-based, like in
+ * {@link JournalReplayBenchmark}, because ten million accounts and their journal do not fit into memory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Timeout(time = 60, timeUnit = TimeUnit.MINUTES)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class InterestAccrualBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int accounts;
+
+    @Param({"1", "2", "4", "8"})
+    private int workers;
+
+    private ConfigurableApplicationContext context;
+    private InterestAccrualService interestAccrualService;
+    private LocalDate businessDate = LocalDate.of(2026, 1, 1);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Files.deleteIfExists(Path.of("target", "interest-accrual-benchmark.mv.db"));
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:file:./target/interest-accrual-benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bankingapp.accrual.annual-interest-rate=0.05",
+                        "--bankingapp.accrual.partition-size=" + Math.max(accounts / (workers * 4), 10_000),
+                        "--bankingapp.accrual.parallelism=" + workers);
+        interestAccrualService = context.getBean(InterestAccrualService.class);
+        // balances of 1000.00 with an opening entry each, so that every account earns interest
+        context.getBean(JdbcTemplate.class).update("INSERT INTO account(id, account_number, name, balance, " +
+                "journal_sequence) SELECT X, LPAD(X, 10, '0'), CONCAT('Account ', X), 100000, 1 " +
+                "FROM SYSTEM_RANGE(1, ?)", accounts);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccrualReportDTO accrue() {
+        businessDate = businessDate.plusDays(1);
+        AccrualReportDTO report = interestAccrualService.accrue(businessDate);
+        if (report.getAccounts() != accounts || report.getInterestPostings() != accounts) {
+            throw new IllegalStateException("Unexpected accrual result: " + report);
+        }
+        return report;
+    }
+}
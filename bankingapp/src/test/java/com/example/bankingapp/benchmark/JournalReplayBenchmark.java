@@ -0,0 +1,91 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.dto.ReplayReportDTO;
+import com.example.bankingapp.service.JournalReplayService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to replay and verify a journal of {@code entries} entries spread evenly over 100k accounts.
+ * Throughput in entries per second is {@code entries} divided by the score. The database is file-based,
+ * because tens of millions of entries do not fit into an in-memory database next to the benchmark heap.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Timeout(time = 30, timeUnit = TimeUnit.MINUTES)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class JournalReplayBenchmark {
+
+    private static final int ACCOUNTS = 100_000;
+    private static final int SEED_CHUNK = 1_000_000;
+
+    @Param({"1000000", "10000000"})
+    private int entries;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private ConfigurableApplicationContext context;
+    private JournalReplayService journalReplayService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Files.deleteIfExists(Path.of("target", "journal-replay-benchmark.mv.db"));
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:file:./target/journal-replay-benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bankingapp.journal.replay-parallelism=" + parallelism);
+        journalReplayService = context.getBean(JournalReplayService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long perAccount = entries / ACCOUNTS;
+        jdbcTemplate.update("INSERT INTO account(id, account_number, name, balance, journal_sequence) " +
+                "SELECT X, LPAD(X, 10, '0'), CONCAT('Account ', X), ?, ? FROM SYSTEM_RANGE(1, ?)",
+                perAccount, perAccount, ACCOUNTS);
+        for (long from = 0; from < entries; from += SEED_CHUNK) {
+            jdbcTemplate.update("INSERT INTO account_transaction(id, account_id, sequence_number, type, amount, created_at) " +
+                    "SELECT X + 1, MOD(X, ?) + 1, X / ? + 1, 'DEPOSIT', 1, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?, ?)",
+                    ACCOUNTS, ACCOUNTS, from, Math.min(from + SEED_CHUNK, entries) - 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ReplayReportDTO replay() {
+        ReplayReportDTO report = journalReplayService.replay(false);
+        if (report.getEntries() != entries || report.getMismatched() != 0) {
+            throw new IllegalStateException("Unexpected replay result: " + report);
+        }
+        return report;
+    }
+}
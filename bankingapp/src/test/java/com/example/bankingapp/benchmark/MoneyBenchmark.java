@@ -0,0 +1,100 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.mapper.AccountMapper;
+import com.example.bankingapp.mapper.AccountMapperImpl;
+import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit arithmetic and entity-to-DTO balance mapping with {@code long} minor units ({@link Money})
+ * compared to the boxed {@code Double} and {@code BigDecimal} alternatives.
+ * Run with {@code -prof gc} to see the allocation rate of each variant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private final AccountMapper accountMapper = new AccountMapperImpl();
+
+    private long minorBalance;
+    private long minorAmount;
+    private Double doubleBalance;
+    private Double doubleAmount;
+    private BigDecimal decimalBalance;
+    private BigDecimal decimalAmount;
+    private Account account;
+
+    @Setup
+    public void setUp() {
+        minorBalance = 1_234_567;
+        minorAmount = 1_999;
+        doubleBalance = 12_345.67;
+        doubleAmount = 19.99;
+        decimalBalance = new BigDecimal("12345.67");
+        decimalAmount = new BigDecimal("19.99");
+
+        account = new Account();
+        account.setId(1L);
+        account.setAccountNumber("1234567890");
+        account.setName("John Doe");
+        account.setBalance(minorBalance);
+    }
+
+    @Benchmark
+    public long depositMinorUnits() {
+        return Money.add(minorBalance, minorAmount);
+    }
+
+    @Benchmark
+    public Double depositDouble() {
+        return doubleBalance + doubleAmount;
+    }
+
+    @Benchmark
+    public BigDecimal depositBigDecimal() {
+        return decimalBalance.add(decimalAmount);
+    }
+
+    @Benchmark
+    public boolean withdrawCheckMinorUnits() {
+        return minorBalance >= minorAmount;
+    }
+
+    @Benchmark
+    public boolean withdrawCheckDouble() {
+        return doubleBalance >= doubleAmount;
+    }
+
+    @Benchmark
+    public boolean withdrawCheckBigDecimal() {
+        return decimalBalance.compareTo(decimalAmount) >= 0;
+    }
+
+    @Benchmark
+    public long parseAmountMinorUnits() {
+        return Money.toMinorUnits(decimalAmount);
+    }
+
+    @Benchmark
+    public AccountDTO mapToDTO() {
+        return accountMapper.toDTO(account);
+    }
+}
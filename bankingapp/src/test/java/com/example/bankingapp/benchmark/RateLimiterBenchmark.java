@@ -0,0 +1,68 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.config.RateLimitProperties;
+import com.example.bankingapp.service.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of admitting a request through the {@link RateLimiter} from 8 threads, with accounts and clients drawn
+ * uniformly from {@code keys} distinct keys. The limits are high enough that no request is rejected, so this
+ * measures the bucket lookup and update; with 10M keys the buckets exceed the maximum size and are evicted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    @Param({"1000", "1000000", "10000000"})
+    private int keys;
+
+    private RateLimiter rateLimiter;
+    private String[] accountKeys;
+    private String[] clientKeys;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setAccount(new RateLimitProperties.Limit(Integer.MAX_VALUE, 1e9));
+        properties.setClient(new RateLimitProperties.Limit(Integer.MAX_VALUE, 1e9));
+        rateLimiter = new RateLimiter(properties, new SimpleMeterRegistry());
+        int distinct = Math.min(keys, 1_000_000);
+        accountKeys = new String[distinct];
+        clientKeys = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            accountKeys[i] = "id:" + i;
+            clientKeys[i] = "client-" + i;
+        }
+    }
+
+    @Benchmark
+    public void acquire() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(keys);
+        rateLimiter.acquire(accountKey(key), clientKeys[random.nextInt(clientKeys.length)]);
+    }
+
+    private String accountKey(int key) {
+        return key < accountKeys.length ? accountKeys[key] : "id:" + key;
+    }
+}
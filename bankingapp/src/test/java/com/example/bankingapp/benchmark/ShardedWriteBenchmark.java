@@ -0,0 +1,117 @@
+package com.example.bankingapp.benchmark;
+
+import com.example.bankingapp.BankingappApplication;
+import com.example.bankingapp.model.Transfer;
+import com.example.bankingapp.service.AccountService;
+import com.example.bankingapp.service.AccountShards;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of deposits and of batches of transfers between random accounts from 8 threads, with the accounts
+ * in the application's database ({@code shards = 0}) or spread over 1 to 8 in-memory shard databases. With more
+ * than one shard nearly every batch spans shards and commits in two phases.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShardedWriteBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int TRANSFERS_PER_BATCH = 10;
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int shards;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String run = UUID.randomUUID().toString();
+        List<String> args = new ArrayList<>(List.of("--logging.level.root=WARN", "--spring.jpa.show-sql=false",
+                "--spring.datasource.url=jdbc:h2:mem:" + run + ";DB_CLOSE_DELAY=-1"));
+        if (shards > 0) {
+            args.add("--bankingapp.sharding.enabled=true");
+            args.add("--bankingapp.sharding.count=" + shards);
+            args.add("--bankingapp.sharding.url=jdbc:h2:mem:" + run + "-{shard};DB_CLOSE_DELAY=-1");
+        }
+        context = new SpringApplicationBuilder(BankingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        accountService = context.getBean(AccountService.class);
+        ids = new long[ACCOUNTS];
+        if (shards == 0) {
+            seed(context.getBean(JdbcTemplate.class), 1, 0);
+        } else {
+            // IDs above every sequence value, each on the shard its ID maps to
+            AccountShards accountShards = context.getBean(AccountShards.class);
+            for (int index = 0; index < shards; index++) {
+                seed(accountShards.get(index).jdbcTemplate(), shards, index);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deposit() {
+        accountService.deposit(randomId(), 1);
+    }
+
+    @Benchmark
+    public void transferBatch() {
+        List<Transfer> transfers = new ArrayList<>(TRANSFERS_PER_BATCH);
+        for (int i = 0; i < TRANSFERS_PER_BATCH; i++) {
+            int from = ThreadLocalRandom.current().nextInt(ACCOUNTS);
+            int to = (from + ThreadLocalRandom.current().nextInt(1, ACCOUNTS)) % ACCOUNTS;
+            transfers.add(new Transfer(ids[from], ids[to], 1));
+        }
+        accountService.transferAll(transfers);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, int count, int index) {
+        int first = index * (ACCOUNTS / count);
+        int size = index == count - 1 ? ACCOUNTS - first : ACCOUNTS / count;
+        jdbcTemplate.update("INSERT INTO account(id, account_number, name, balance) " +
+                "SELECT 1000000000 + X * ? + ?, CAST(1000000000 + X * ? + ? AS VARCHAR), 'Benchmark', " +
+                "1000000000000 FROM SYSTEM_RANGE(0, ?)", count, index, count, index, size - 1);
+        for (int i = 0; i < size; i++) {
+            ids[first + i] = 1000000000L + (long) i * count + index;
+        }
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ACCOUNTS)];
+    }
+}
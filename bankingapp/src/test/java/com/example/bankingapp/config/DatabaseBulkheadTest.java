@@ -0,0 +1,46 @@
+package com.example.bankingapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {"spring.threads.virtual.enabled=true", "bankingapp.bulkhead.max-concurrent=2",
+        "bankingapp.bulkhead.acquire-timeout=100ms"})
+@ActiveProfiles("test")
+@DirtiesContext
+class DatabaseBulkheadTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void connectionsBeyondLimit_waitThenFail_untilOneIsReturned() throws Exception {
+        // given
+        BulkheadDataSource bulkhead = assertInstanceOf(BulkheadDataSource.class, dataSource);
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        // when / then
+        assertEquals(0, bulkhead.getAvailable());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1, bulkhead.getRejections());
+
+        first.close();
+        first.close();
+        try (Connection third = dataSource.getConnection()) {
+            assertEquals(0, bulkhead.getAvailable());
+        }
+        second.close();
+        assertEquals(2, bulkhead.getAvailable());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bankingapp.config;
+
+import com.example.bankingapp.service.BalanceSnapshotService;
+import com.example.bankingapp.service.IdempotencyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:faststart",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "bankingapp.warmup.iterations=5"})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "fast-start"})
+@DirtiesContext
+class FastStartTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void schema_isMigratedAndMatchesTheEntities() throws Exception {
+        // given the context started with hibernate validating the migrated schema
+
+        // when
+        Integer migrations = jdbcTemplate.queryForObject(
+                "select count(*) from \"flyway_schema_history\" where \"version\" = '1' and \"success\"",
+                Integer.class);
+        mockMvc.perform(post("/api/account").contentType("application/json")
+                        .content("{\"accountNumber\": \"1234567890\", \"name\": \"John Doe\", \"balance\": 10.00}"))
+                .andExpect(status().isOk());
+
+        // then
+        assertEquals(1, migrations);
+        mockMvc.perform(get("/api/account/by-number/{accountNumber}", "1234567890"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(10.00));
+    }
+
+    @Test
+    void backgroundServicesAreEager_andReadPathsAreWarmedUp() {
+        // given
+        var beanFactory = context.getBeanFactory();
+
+        // when
+        boolean snapshotsStarted = beanFactory.containsSingleton("balanceSnapshotService");
+        boolean idempotencyStarted = beanFactory.containsSingleton("idempotencyService");
+
+        // then
+        assertTrue(snapshotsStarted);
+        assertTrue(idempotencyStarted);
+        assertTrue(beanFactory.getBeanDefinition("accountBulkService").isLazyInit());
+        assertTrue(meterRegistry.get("account.service").tag("operation", "getPage").timer().count() >= 5);
+    }
+}
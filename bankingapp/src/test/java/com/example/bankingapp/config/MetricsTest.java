@@ -0,0 +1,77 @@
+package com.example.bankingapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(statements = {"TRUNCATE TABLE account RESTART IDENTITY", "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot",
+        "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);"})
+class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceOperationsAndRequestStatements_areRecorded() throws Exception {
+        // given
+        long deposits = timerCount("account.service", "operation", "deposit");
+        double insufficientFunds = counter("withdraw", "InsufficientFundsException");
+        double notFound = counter("getAccount", "EntityNotFoundException");
+        long depositRequests = sqlCount("AccountController.deposit");
+
+        // when
+        mockMvc.perform(put("/api/account/{id}/deposit", 1).param("amount", "50.0"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/account/{id}/withdraw", 1).param("amount", "500.0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/account/{id}", 42))
+                .andExpect(status().isNotFound());
+
+        // then
+        assertEquals(deposits + 1, timerCount("account.service", "operation", "deposit"));
+        assertEquals(insufficientFunds + 1, counter("withdraw", "InsufficientFundsException"));
+        assertEquals(notFound + 1, counter("getAccount", "EntityNotFoundException"));
+        assertEquals(depositRequests + 1, sqlCount("AccountController.deposit"));
+        var statements = meterRegistry.get("http.server.requests.sql.statements")
+                .tag("endpoint", "AccountController.deposit").summary();
+        assertTrue(statements.max() >= 2, "a deposit reads the account and journals the change");
+        assertTrue(meterRegistry.get("http.server.requests.sql.time")
+                .tag("endpoint", "AccountController.deposit").timer().totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    private long timerCount(String name, String tagKey, String tagValue) {
+        var timer = meterRegistry.find(name).tag(tagKey, tagValue).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double counter(String operation, String exception) {
+        var counter = meterRegistry.find("account.service.errors")
+                .tags("operation", operation, "exception", exception).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long sqlCount(String endpoint) {
+        var summary = meterRegistry.find("http.server.requests.sql.statements").tag("endpoint", endpoint).summary();
+        return summary == null ? 0 : summary.count();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bankingapp.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrates databases in the schema of the application before migrations, as Hibernate created it with IDs
+ * assigned by an identity column and balances as {@code double precision} major units, or, later, as
+ * {@code bigint} minor units.
+ */
+class MigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private Flyway flyway;
+
+    @Test
+    void migrate_addsTheMissingSchemaToALegacyDatabase() {
+        // given
+        createLegacyDatabase("double precision", "10.0", "100.0", "0.0");
+
+        // when
+        flyway.migrate();
+
+        // then
+        assertEquals(List.of(0L, 0L, 0L), jdbcTemplate.queryForList(
+                "select journal_sequence + version from account order by id", Long.class));
+        jdbcTemplate.update("insert into account_transaction(id, account_id, amount, created_at, " +
+                "sequence_number, type) values (1, 1, 5, current_timestamp, 1, 'INTEREST')");
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from accrual_checkpoint", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from idempotency_record", Integer.class));
+    }
+
+    @Test
+    void migrate_convertsFloatingPointBalancesToMinorUnits() {
+        // given
+        createLegacyDatabase("double precision", "10.0", "100.25", "0.1");
+
+        // when
+        flyway.migrate();
+
+        // then
+        assertEquals(List.of(1000L, 10025L, 10L), balances());
+        assertEquals("BIGINT", jdbcTemplate.queryForObject("select data_type from information_schema.columns " +
+                "where table_name = 'ACCOUNT' and column_name = 'BALANCE'", String.class));
+    }
+
+    @Test
+    void migrate_keepsBalancesAlreadyInMinorUnits() {
+        // given
+        createLegacyDatabase("bigint", "1000", "10000", "0");
+
+        // when
+        flyway.migrate();
+
+        // then
+        assertEquals(List.of(1000L, 10000L, 0L), balances());
+    }
+
+    @Test
+    void migrate_movesTheAccountSequencePastExistingIds() {
+        // given
+        createLegacyDatabase("double precision", "10.0", "100.0", "0.0");
+
+        // when
+        flyway.migrate();
+
+        // then the lowest of the 50 IDs handed out for the next sequence value is above the highest ID
+        Long next = jdbcTemplate.queryForObject("select next value for account_seq", Long.class);
+        assertTrue(next - 49 > 4, "next sequence value " + next);
+    }
+
+    private List<Long> balances() {
+        return jdbcTemplate.queryForList("select balance from account order by id", Long.class);
+    }
+
+    private void createLegacyDatabase(String balanceType, String... balances) {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:legacy-" + UUID.randomUUID(), "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table account (id bigint generated by default as identity primary key, " +
+                "account_number varchar(255) not null unique, balance " + balanceType + " not null, " +
+                "name varchar(255))");
+        jdbcTemplate.update("insert into account(id, account_number, balance, name) values " +
+                "(1, '9234567890', ?, 'Zory Jols'), (2, '1233567890', ?, 'Karl Galager'), " +
+                "(4, '2233767890', ?, 'Lili Jons')", (Object[]) balances);
+        flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.bankingapp.config;
+
+import com.example.bankingapp.service.AccountService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:production;QUERY_CACHE_SIZE=64",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.minimum-idle=2"})
+@ActiveProfiles({"test", "production"})
+@DirtiesContext
+@Sql(statements = {"TRUNCATE TABLE account RESTART IDENTITY", "TRUNCATE TABLE account_transaction",
+        "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);"})
+class ProductionProfileTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void statementsAreBatched_andThePoolIsPublished() {
+        // given
+        var properties = entityManagerFactory.getProperties();
+
+        // when
+        accountService.deposit(1L, 50);
+
+        // then
+        assertEquals("50", String.valueOf(properties.get("hibernate.jdbc.batch_size")));
+        assertEquals("true", String.valueOf(properties.get("hibernate.order_updates")));
+        assertEquals(2, meterRegistry.get("hikaricp.connections.max").tag("pool", "bankingapp").gauge().value());
+        assertTrue(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "bankingapp").timer().count() > 0);
+        assertTrue(meterRegistry.get("account.service.connection.wait").tag("operation", "deposit").timer()
+                .count() > 0);
+    }
+
+    @Test
+    void operationWaitingForAnExhaustedPool_recordsTheWait() throws Exception {
+        // given a pool without bulkhead on platform threads
+        assertFalse(dataSource instanceof BulkheadDataSource);
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        // when
+        CompletableFuture<?> lookup = CompletableFuture.runAsync(() -> accountService.getAccount(1L));
+        while (pool.getThreadsAwaitingConnection() == 0) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+        first.close();
+        lookup.get(5, TimeUnit.SECONDS);
+        second.close();
+
+        // then
+        double waitedMillis = meterRegistry.get("account.service.connection.wait").tag("operation", "getAccount")
+                .timer().max(TimeUnit.MILLISECONDS);
+        assertTrue(waitedMillis >= 200, "the lookup waited for a connection for " + waitedMillis + " ms");
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bankingapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"bankingapp.rate-limit.enabled=true",
+        "bankingapp.rate-limit.account.capacity=2", "bankingapp.rate-limit.account.refill-per-second=0.01",
+        "bankingapp.rate-limit.client.capacity=3", "bankingapp.rate-limit.client.refill-per-second=0.01"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {"TRUNCATE TABLE account RESTART IDENTITY", "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot",
+        "INSERT INTO account(id, account_number, name, balance) " +
+                "VALUES (1, '1234567890', 'John Doe', 10000), " +
+                "(2, '0987654321', 'Jane Doe', 10000), " +
+                "(3, '1122334455', 'Jim Doe', 10000);"})
+class RateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void requestsOverTheAccountOrClientLimit_rejected() throws Exception {
+        // when & then
+        mockMvc.perform(put("/api/account/{id}/deposit", 1).param("amount", "1").with(from("10.0.0.1")))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/account/{id}/withdraw", 1).param("amount", "1").with(from("10.0.0.2")))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/account/{id}/deposit", 1).param("amount", "1").with(from("10.0.0.3")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        mockMvc.perform(put("/api/account/{id}/deposit", 2).param("amount", "1").with(from("10.0.0.1")))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/account/{id}/deposit", 2).param("amount", "1").with(from("10.0.0.1")))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/account/by-number/{accountNumber}/deposit", "0987654321")
+                        .param("amount", "1").with(from("10.0.0.1")))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(get("/api/account/{id}", 1).with(from("10.0.0.1")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void requestsByIdAndByNumber_shareTheAccountLimit() throws Exception {
+        // when & then
+        mockMvc.perform(put("/api/account/{id}/deposit", 3).param("amount", "1").with(from("10.0.0.4")))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/account/by-number/{accountNumber}/withdraw", "1122334455")
+                        .param("amount", "1").with(from("10.0.0.5")))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/account/{id}/deposit", 3).param("amount", "1").with(from("10.0.0.6")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void untrustedClientHeader_doesNotEscapeTheClientLimit() throws Exception {
+        // when & then
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(transfer().with(from("10.0.0.9")).header("X-Client-Id", "client-" + i))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(transfer().with(from("10.0.0.9")).header("X-Client-Id", "client-3"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private static MockHttpServletRequestBuilder transfer() {
+        return post("/api/account/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromId\": 1, \"toId\": 2, \"amount\": 1}");
+    }
+
+    private static RequestPostProcessor from(String remoteAddress) {
+        return request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        };
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.bankingapp.controller;
 
+import com.example.bankingapp.dto.AccountDTO;
 import com.example.bankingapp.repository.AccountRepository;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -11,20 +14,27 @@ import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlMergeMode;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItems;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.test.context.jdbc.SqlMergeMode.MergeMode.MERGE;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT)
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
-@Sql(statements = "TRUNCATE TABLE account RESTART IDENTITY")
+@Sql(statements = {"TRUNCATE TABLE account RESTART IDENTITY", "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot"})
 @SqlMergeMode(MERGE)
 class AccountControllerTest {
 
@@ -45,22 +55,34 @@ class AccountControllerTest {
                 }
                 """;
 
-        // when & then
-        mockMvc.perform(post("/api/account")
+        // when
+        var result = mockMvc.perform(post("/api/account")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonBody))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(1));
+                .andExpect(jsonPath("$.id").isNumber())
+                .andReturn();
+
+        // then
+        var id = JsonPath.<Number>read(result.getResponse().getContentAsString(), "$.id").longValue();
+        var account = accountRepository.findById(id).orElseThrow();
+        assertEquals("1234567890", account.getAccountNumber());
+        assertEquals(10000L, account.getBalance());
     }
 
     @Test
-    @Sql(statements = "INSERT INTO account(account_number, name, balance) " +
-            "VALUES ('1234567890', 'John Doe', 100.0), " +
-            "('0987654321', 'Jane Doe', 200.0);")
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) " +
+            "VALUES (1, '1234567890', 'John Doe', 10000), " +
+            "(2, '0987654321', 'Jane Doe', 20000);")
     void getAllAccounts_success() throws Exception {
-        // when & then
-        mockMvc.perform(get("/api/account"))
+        // when
+        var result = mockMvc.perform(get("/api/account"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()").value(2))
@@ -69,7 +91,139 @@ class AccountControllerTest {
     }
 
     @Test
-    @Sql(statements = "INSERT INTO account(account_number, name, balance) VALUES('1234567890', 'John Doe', 100.0);")
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) " +
+            "VALUES (1, '1234567890', 'John Doe', 10000), " +
+            "(2, '0987654321', 'Jane Doe', 20000);")
+    void getAllAccounts_ndjson() throws Exception {
+        // when
+        var result = mockMvc.perform(get("/api/account").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        var lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"accountNumber\":\"1234567890\""));
+        assertTrue(lines[1].contains("\"accountNumber\":\"0987654321\""));
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) " +
+            "VALUES (1, '1234567890', 'John Doe', 10000), " +
+            "(2, '0987654321', 'Jane Doe', 20000), " +
+            "(3, '1122334455', 'Jim Doe', 30000);")
+    void getAccountPage_success() throws Exception {
+        // when
+        var firstPage = mockMvc.perform(get("/api/account/page").param("size", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()").value(2))
+                .andExpect(jsonPath("$.content[*].id").value(contains(1, 2)))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+        var cursor = JsonPath.<String>read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        // then
+        mockMvc.perform(get("/api/account/page").param("size", "2").param("cursor", cursor))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()").value(1))
+                .andExpect(jsonPath("$.content[0].accountNumber").value("1122334455"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
+    void importAccounts_csv() throws Exception {
+        // given
+        var csv = """
+                accountNumber,name,balance
+                0987654321,Jane Doe,200.00
+                12345,Too Short,1.00
+                1234567890,Duplicate,5.00
+                1122334455,"Doe, Jim",0
+                """;
+
+        // when & then
+        mockMvc.perform(post("/api/account/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[*].line").value(contains(3, 4)));
+        assertEquals(3, accountRepository.count());
+    }
+
+    @Test
+    void importAccounts_ndjson() throws Exception {
+        // given
+        var ndjson = """
+                {"accountNumber": "1234567890", "name": "John Doe", "balance": 100.0}
+                {"accountNumber": "0987654321", "name": "Jane Doe", "balance": -1}
+                {"accountNumber": "1122334455", "name": "Jim Doe"
+                """;
+
+        // when & then
+        mockMvc.perform(post("/api/account/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[*].line").value(contains(2, 3)));
+        assertEquals(1, accountRepository.count());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) " +
+            "VALUES (1, '1234567890', 'John Doe', 10000), " +
+            "(2, '0987654321', 'Jane Doe', 20050);")
+    void exportAccounts_csv() throws Exception {
+        // when
+        var result = mockMvc.perform(get("/api/account/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        var csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("""
+                id,accountNumber,name,balance
+                1,1234567890,"John Doe",100.00
+                2,0987654321,"Jane Doe",200.50
+                """, csv);
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) " +
+            "VALUES (1, '1234567890', 'John Doe', 10000), " +
+            "(2, '0987654321', 'Jane Doe', 20000);")
+    void getAllAccounts_cbor() throws Exception {
+        // when
+        var result = mockMvc.perform(get("/api/account").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        var body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        var accounts = new CBORMapper().readValue(body, AccountDTO[].class);
+        assertEquals(2, accounts.length);
+        assertEquals("1234567890", accounts[0].getAccountNumber());
+        assertEquals(new BigDecimal("200.00"), accounts[1].getBalance());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
     void getAccount_success() throws Exception {
         // when & then
         mockMvc.perform(get("/api/account/{id}", 1))
@@ -82,7 +236,64 @@ class AccountControllerTest {
     }
 
     @Test
-    @Sql(statements = "INSERT INTO account(account_number, name, balance) VALUES('1234567890', 'John Doe', 100.0);")
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) " +
+            "VALUES (1, '1234567890', 'John Doe', 10000), " +
+            "(2, '0987654321', 'Jane Doe', 20000);")
+    void batchGet_resultsInRequestOrderWithMissingMarked() throws Exception {
+        // given
+        var jsonBody = """
+                {
+                    "ids": [2, 42, 1, 2],
+                    "accountNumbers": ["0000000000", "1234567890"]
+                }
+                """;
+
+        // when & then
+        mockMvc.perform(post("/api/account/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[*].id").value(contains(2, 42, 1, 2, null, null)))
+                .andExpect(jsonPath("$.results[*].found").value(contains(true, false, true, true, false, true)))
+                .andExpect(jsonPath("$.results[0].account.name").value("Jane Doe"))
+                .andExpect(jsonPath("$.results[0].account.balance").value(200.0))
+                .andExpect(jsonPath("$.results[1].account").isEmpty())
+                .andExpect(jsonPath("$.results[4].accountNumber").value("0000000000"))
+                .andExpect(jsonPath("$.results[5].account.id").value(1));
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
+    void getAccount_cbor() throws Exception {
+        // when
+        var body = mockMvc.perform(get("/api/account/{id}", 1).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then
+        var account = new CBORMapper().readValue(body, AccountDTO.class);
+        assertEquals(1L, account.getId());
+        assertEquals("John Doe", account.getName());
+        assertEquals(new BigDecimal("100.00"), account.getBalance());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
+    void getAccountByNumber_success() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/account/by-number/{accountNumber}", "1234567890"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.name").value("John Doe"));
+        mockMvc.perform(get("/api/account/by-number/{accountNumber}", "0000000000"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
     void testUpdateAccount_success() throws Exception {
         // given
         var jsonBody = """
@@ -104,7 +315,7 @@ class AccountControllerTest {
     }
 
     @Test
-    @Sql(statements = "INSERT INTO account(account_number, name, balance) VALUES('1234567890', 'John Doe', 100.0);")
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
     void deposit_success() throws Exception {
         // given
         var depositAmount = "50.0";
@@ -117,11 +328,62 @@ class AccountControllerTest {
 
         // then
         var account = accountRepository.findById(1L).orElseThrow();
-        assertEquals(150.0, account.getBalance());
+        assertEquals(15000L, account.getBalance());
+    }
+
+    @Test
+    @Sql(statements = {"TRUNCATE TABLE idempotency_record",
+            "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);"})
+    void deposit_withIdempotencyKey_appliedOnce() throws Exception {
+        // when
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(put("/api/account/{id}/deposit", 1)
+                            .header("Idempotency-Key", "deposit-once")
+                            .param("amount", "50.0"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(put("/api/account/{id}/deposit", 1)
+                        .header("Idempotency-Key", "deposit-once")
+                        .param("amount", "60.0"))
+                .andExpect(status().isConflict());
+
+        // then
+        var account = accountRepository.findById(1L).orElseThrow();
+        assertEquals(15000L, account.getBalance());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
+    void depositAndWithdrawByNumber_success() throws Exception {
+        // when
+        mockMvc.perform(put("/api/account/by-number/{accountNumber}/deposit", "1234567890")
+                        .param("amount", "50.0"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/account/by-number/{accountNumber}/withdraw", "1234567890")
+                        .param("amount", "20.0"))
+                .andExpect(status().isOk());
+
+        // then
+        var account = accountRepository.findById(1L).orElseThrow();
+        assertEquals(13000L, account.getBalance());
     }
 
     @Test
-    @Sql(statements = "INSERT INTO account(account_number, name, balance) VALUES('1234567890', 'John Doe', 100.0);")
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
+    void deposit_tooManyFractionDigits() throws Exception {
+        // when
+        mockMvc.perform(put("/api/account/{id}/deposit", 1)
+                        .param("amount", "0.001"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        // then
+        var account = accountRepository.findById(1L).orElseThrow();
+        assertEquals(10000L, account.getBalance());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
     void testWithdraw_success() throws Exception {
         // given
         var withdrawAmount = "50.0";
@@ -137,11 +399,116 @@ class AccountControllerTest {
         var account = accountRepository.findById(1L).orElseThrow();
         assertEquals("1234567890", account.getAccountNumber());
         assertEquals("John Doe", account.getName());
-        assertEquals(50.0, account.getBalance());
+        assertEquals(5000L, account.getBalance());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
+    void getBalance_asOfBeforeAndAfterDeposit() throws Exception {
+        // given
+        mockMvc.perform(put("/api/account/{id}/deposit", 1).param("amount", "50.0"))
+                .andExpect(status().isOk());
+
+        // when & then
+        mockMvc.perform(get("/api/account/{id}/balance", 1))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value(1))
+                .andExpect(jsonPath("$.balance").value(150.0));
+        mockMvc.perform(get("/api/account/{id}/balance", 1).param("asOf", "2000-01-01T00:00:00Z"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0))
+                .andExpect(jsonPath("$.asOf").value("2000-01-01T00:00:00Z"));
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
+    void getTransactions_pagesJournalInSequenceOrder() throws Exception {
+        // given
+        mockMvc.perform(put("/api/account/{id}/deposit", 1).param("amount", "50.0"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/account/{id}/withdraw", 1).param("amount", "20.0"))
+                .andExpect(status().isOk());
+
+        // when
+        var firstPage = mockMvc.perform(get("/api/account/{id}/transactions", 1).param("size", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].sequenceNumber").value(1))
+                .andExpect(jsonPath("$.content[0].type").value("OPENING"))
+                .andExpect(jsonPath("$.content[0].amount").value(100.0))
+                .andExpect(jsonPath("$.content[1].sequenceNumber").value(2))
+                .andExpect(jsonPath("$.content[1].type").value("DEPOSIT"))
+                .andExpect(jsonPath("$.content[1].amount").value(50.0))
+                .andReturn();
+        String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        // then
+        mockMvc.perform(get("/api/account/{id}/transactions", 1).param("size", "2").param("cursor", cursor))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].sequenceNumber").value(3))
+                .andExpect(jsonPath("$.content[0].type").value("WITHDRAWAL"))
+                .andExpect(jsonPath("$.content[0].amount").value(-20.0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
-    @Sql(statements = "INSERT INTO account(account_number, name, balance) VALUES('1234567890', 'John Doe', 100.0);")
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) " +
+            "VALUES (1, '1234567890', 'John Doe', 10000), " +
+            "(2, '0987654321', 'Jane Doe', 20000);")
+    void transfer_success() throws Exception {
+        // given
+        var jsonBody = """
+                {
+                    "fromId": 1,
+                    "toId": 2,
+                    "amount": 25.50
+                }
+                """;
+
+        // when
+        mockMvc.perform(post("/api/account/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        // then
+        assertEquals(7450L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(22550L, accountRepository.findById(2L).orElseThrow().getBalance());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) " +
+            "VALUES (1, '1234567890', 'John Doe', 10000), " +
+            "(2, '0987654321', 'Jane Doe', 20000);")
+    void transferBatch_insufficientFunds() throws Exception {
+        // given
+        var jsonBody = """
+                {
+                    "transfers": [
+                        { "fromId": 2, "toId": 1, "amount": 50.0 },
+                        { "fromId": 1, "toId": 2, "amount": 200.0 }
+                    ]
+                }
+                """;
+
+        // when
+        mockMvc.perform(post("/api/account/transfer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        // then
+        assertEquals(10000L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(20000L, accountRepository.findById(2L).orElseThrow().getBalance());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000);")
     void deleteAccount_success() throws Exception {
         // when
         mockMvc.perform(delete("/api/account/{id}", 1))
@@ -152,4 +519,16 @@ class AccountControllerTest {
         var accountExists = accountRepository.findById(1L).isPresent();
         assertFalse(accountExists);
     }
-}
\ No newline at end of file
+
+    @Test
+    void adminEndpoints_areNotServedByDefault() throws Exception {
+        mockMvc.perform(post("/api/admin/journal/replay").param("rebuild", "true"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/account/journal/replay").param("rebuild", "true"))
+                .andExpect(status().is4xxClientError());
+        mockMvc.perform(post("/api/admin/accrual").param("businessDate", "2026-10-17"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/account/accrual").param("businessDate", "2026-10-17"))
+                .andExpect(status().is4xxClientError());
+    }
+}
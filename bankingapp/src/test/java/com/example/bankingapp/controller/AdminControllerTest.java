@@ -0,0 +1,69 @@
+package com.example.bankingapp.controller;
+
+import com.example.bankingapp.repository.AccountRepository;
+import com.example.bankingapp.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"bankingapp.admin.enabled=true", "bankingapp.accrual.annual-interest-rate=0.365"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {"TRUNCATE TABLE account RESTART IDENTITY", "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot", "TRUNCATE TABLE accrual_checkpoint",
+        "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000)"})
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void replayJournal_rebuildsMismatchedBalances() throws Exception {
+        // given
+        accountService.deposit(1L, 500);
+        jdbcTemplate.update("update account set balance = 1 where id = 1");
+
+        // when
+        mockMvc.perform(post("/api/admin/journal/replay").param("rebuild", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mismatched").value(1))
+                .andExpect(jsonPath("$.rebuilt").value(1));
+
+        // then
+        assertEquals(10500L, accountRepository.findById(1L).orElseThrow().getBalance());
+    }
+
+    @Test
+    void accrueInterest_postsEveryAccountOnce() throws Exception {
+        // when
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/admin/accrual").param("businessDate", "2026-10-17"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.interestPostings").value(1 - i));
+        }
+
+        // then
+        assertEquals(10010L, accountRepository.findById(1L).orElseThrow().getBalance());
+    }
+}
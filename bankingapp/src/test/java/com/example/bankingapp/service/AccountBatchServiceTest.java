@@ -0,0 +1,62 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.dto.AccountBatchDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"bankingapp.batch-get.chunk-size=3", "bankingapp.batch-get.parallel=true",
+        "bankingapp.batch-get.max-size=20"})
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {
+        "TRUNCATE TABLE account RESTART IDENTITY",
+        "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot",
+        "INSERT INTO account(id, account_number, name, balance) " +
+                "SELECT X, CAST(1000000000 + X AS VARCHAR), CONCAT('Account ', X), X FROM SYSTEM_RANGE(1, 10);"
+})
+class AccountBatchServiceTest {
+
+    @Autowired
+    private AccountBatchService accountBatchService;
+
+    @Test
+    void getAccounts_parallelChunksInRequestOrder() {
+        // given
+        List<Long> ids = LongStream.rangeClosed(1, 12).map(i -> 13 - i).boxed().toList();
+
+        // when
+        AccountBatchDTO batch = accountBatchService.getAccounts(ids, List.of("1000000005", "1000000099"));
+
+        // then
+        assertEquals(14, batch.getResults().size());
+        assertFalse(batch.getResults().get(0).isFound());
+        assertFalse(batch.getResults().get(1).isFound());
+        for (int i = 2; i < 12; i++) {
+            AccountBatchDTO.Result result = batch.getResults().get(i);
+            assertTrue(result.isFound());
+            assertEquals(result.getId(), result.getAccount().getId());
+        }
+        assertEquals(5L, batch.getResults().get(12).getAccount().getId());
+        assertFalse(batch.getResults().get(13).isFound());
+    }
+
+    @Test
+    void getAccounts_tooManyKeys() {
+        // when & then
+        List<Long> ids = LongStream.rangeClosed(1, 21).boxed().toList();
+        assertThrows(IllegalArgumentException.class, () -> accountBatchService.getAccounts(ids, List.of()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.model.Money;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "bankingapp.cache.enabled=true")
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {
+        "TRUNCATE TABLE account RESTART IDENTITY",
+        "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot",
+        "INSERT INTO account(id, account_number, name, balance) " +
+                "VALUES (1, '1234567890', 'John Doe', 0), " +
+                "(2, '0987654321', 'Jane Doe', 10000);"
+})
+class AccountCacheTest {
+
+    private static final int READERS = 8;
+    private static final int DEPOSITS = 500;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void concurrentReadsAndDeposits_neverReturnBalanceOlderThanLastCompletedWrite() throws Exception {
+        // given
+        AtomicLong completed = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        List<Future<?>> readers = new ArrayList<>();
+
+        // when
+        Future<?> writer = executor.submit(() -> {
+            try {
+                for (int i = 1; i <= DEPOSITS; i++) {
+                    accountService.deposit(1L, 1);
+                    completed.set(i);
+                }
+            } finally {
+                writing.set(false);
+            }
+        });
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> {
+                while (writing.get()) {
+                    long lowerBound = completed.get();
+                    long balance = Money.toMinorUnits(accountService.getAccount(1L).getBalance());
+                    assertTrue(balance >= lowerBound, "Read " + balance + " after write " + lowerBound + " completed");
+                }
+            }));
+        }
+        writer.get();
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(Money.toMajorUnits(DEPOSITS), accountService.getAccount(1L).getBalance());
+    }
+
+    @Test
+    void updateAndDelete_evictCachedAccount() {
+        // given
+        accountService.getAccount(2L);
+        AccountDTO update = new AccountDTO();
+        update.setName("Jane Smith");
+
+        // when
+        accountService.updateAccount(2L, update);
+
+        // then
+        assertEquals("Jane Smith", accountService.getAccount(2L).getName());
+
+        // when
+        accountService.deleteAccount(2L);
+
+        // then
+        assertThrows(EntityNotFoundException.class, () -> accountService.getAccount(2L));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.model.Account;
+import com.example.bankingapp.model.Transfer;
+import com.example.bankingapp.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {"bankingapp.concurrency.strategy=optimistic", "bankingapp.concurrency.max-attempts=100"})
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {
+        "TRUNCATE TABLE account RESTART IDENTITY",
+        "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot",
+        "INSERT INTO account(id, account_number, name, balance) " +
+                "VALUES (1, '1234567890', 'John Doe', 1000000), " +
+                "(2, '0987654321', 'Jane Doe', 1000000);"
+})
+class AccountConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 25;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void optimisticConcurrentUpdates_retriedWithoutLostUpdates() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    switch (thread % 3) {
+                        case 0 -> accountService.deposit(1L, 100);
+                        case 1 -> accountService.withdraw(1L, 100);
+                        default -> accountService.transfer(new Transfer(1L, 2L, 10));
+                    }
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // then
+        long transfers = (long) (THREADS / 3) * OPERATIONS_PER_THREAD;
+        long deposits = (long) ((THREADS + 2) / 3) * OPERATIONS_PER_THREAD;
+        long withdrawals = (long) ((THREADS + 1) / 3) * OPERATIONS_PER_THREAD;
+        Account from = accountRepository.findById(1L).orElseThrow();
+        assertEquals(1000000L + (deposits - withdrawals) * 100 - transfers * 10, from.getBalance());
+        assertEquals(1000000L + transfers * 10, accountRepository.findById(2L).orElseThrow().getBalance());
+        assertEquals(from.getBalance(), jdbcTemplate.queryForObject(
+                "SELECT SUM(amount) FROM account_transaction WHERE account_id = 1", Long.class));
+    }
+
+    @Test
+    void staleWrite_isRejected() {
+        // given
+        Account stale = accountRepository.findById(1L).orElseThrow();
+        accountService.deposit(1L, 100);
+
+        // when
+        stale.setBalance(0);
+
+        // then
+        assertThrows(OptimisticLockingFailureException.class, () -> accountRepository.save(stale));
+        assertEquals(1000100L, accountRepository.findById(1L).orElseThrow().getBalance());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.model.Transfer;
+import com.example.bankingapp.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(statements = {
+        "TRUNCATE TABLE account RESTART IDENTITY",
+        "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot",
+        "INSERT INTO account(id, account_number, name, balance) " +
+                "VALUES (1, '1234567890', 'John Doe', 1000000), " +
+                "(2, '0987654321', 'Jane Doe', 1000000), " +
+                "(3, '1122334455', 'Jim Doe', 0);"
+})
+class AccountTransferTest {
+
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 100;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void opposingConcurrentTransfers_noDeadlocksAndNoLostMoney() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            boolean forward = t % 2 == 0;
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    long amount = ThreadLocalRandom.current().nextLong(1, 1000);
+                    accountService.transfer(forward ? new Transfer(1L, 2L, amount) : new Transfer(2L, 1L, amount));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // then
+        long total = accountRepository.findById(1L).orElseThrow().getBalance()
+                + accountRepository.findById(2L).orElseThrow().getBalance();
+        assertEquals(2000000L, total);
+    }
+
+    @Test
+    void transferAll_appliesBatchInOrder() {
+        // when
+        accountService.transferAll(List.of(
+                new Transfer(1L, 3L, 5000),
+                new Transfer(3L, 2L, 2000),
+                new Transfer(2L, 1L, 1000)));
+
+        // then
+        assertEquals(996000L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(1001000L, accountRepository.findById(2L).orElseThrow().getBalance());
+        assertEquals(3000L, accountRepository.findById(3L).orElseThrow().getBalance());
+    }
+
+    @Test
+    void transferAll_rollsBackWholeBatchOnInsufficientFunds() {
+        // when
+        assertThrows(InsufficientFundsException.class, () -> accountService.transferAll(List.of(
+                new Transfer(1L, 3L, 5000),
+                new Transfer(3L, 2L, 6000))));
+
+        // then
+        assertEquals(1000000L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(1000000L, accountRepository.findById(2L).orElseThrow().getBalance());
+        assertEquals(0L, accountRepository.findById(3L).orElseThrow().getBalance());
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.dto.BalanceChangeDTO;
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.model.Transfer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = {"bankingapp.feed.enabled=true", "bankingapp.feed.capacity=16",
+        "bankingapp.accrual.annual-interest-rate=0.365"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {"TRUNCATE TABLE account RESTART IDENTITY", "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot", "TRUNCATE TABLE accrual_checkpoint",
+        "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1234567890', 'John Doe', 10000)",
+        "INSERT INTO account(id, account_number, name, balance) VALUES(2, '0987654321', 'Jane Doe', 5000)"})
+class BalanceChangeFeedTest {
+
+    private static final long WAIT = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceChangeFeed balanceChangeFeed;
+
+    @Autowired
+    private AccountBulkService accountBulkService;
+
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+
+    @Autowired
+    private JournalReplayService journalReplayService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void subscriber_receivesCommittedChangesOfFollowedAccounts() {
+        // given
+        BalanceChangeFeed.Subscription subscription = balanceChangeFeed.subscribe(null, Set.of(1L));
+
+        // when
+        accountService.deposit(1L, 500);
+        accountService.deposit(2L, 500);
+        assertThrows(InsufficientFundsException.class, () -> accountService.withdraw(1L, 100_000));
+        accountService.transfer(new Transfer(2L, 1L, 1000));
+
+        // then
+        List<BalanceChangeDTO> changes = subscription.next(10, WAIT).stream()
+                .map(BalanceChangeFeed.Change::dto).toList();
+        subscription.close();
+        assertEquals(2, changes.size());
+        assertEquals(BalanceChangeDTO.Type.DEPOSIT, changes.get(0).getType());
+        assertEquals(new BigDecimal("5.00"), changes.get(0).getAmount());
+        assertEquals(new BigDecimal("105.00"), changes.get(0).getBalance());
+        assertEquals(BalanceChangeDTO.Type.TRANSFER_IN, changes.get(1).getType());
+        assertEquals(new BigDecimal("115.00"), changes.get(1).getBalance());
+        assertTrue(changes.get(1).getSequence() > changes.get(0).getSequence());
+    }
+
+    @Test
+    void concurrentDeposits_publishBalancesOfAnAccountInCommitOrder() throws Exception {
+        // given
+        BalanceChangeFeed.Subscription subscription = balanceChangeFeed.subscribe(null, Set.of(1L));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> deposits = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < 8; t++) {
+            deposits.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    accountService.deposit(1L, 1);
+                }
+            }));
+        }
+        List<BalanceChangeDTO> changes = new ArrayList<>();
+        while (!deposits.stream().allMatch(Future::isDone)) {
+            subscription.next(16, TimeUnit.MILLISECONDS.toNanos(10)).forEach(change -> changes.add(change.dto()));
+        }
+        for (Future<?> deposit : deposits) {
+            deposit.get();
+        }
+        executor.shutdown();
+        subscription.next(16, WAIT).forEach(change -> changes.add(change.dto()));
+        subscription.close();
+
+        // then: deposits only raise the balance, so a balance going back means the feed reordered two changes
+        BigDecimal previous = BigDecimal.ZERO;
+        for (BalanceChangeDTO change : changes) {
+            if (change.getType() == BalanceChangeDTO.Type.DEPOSIT) {
+                assertTrue(change.getBalance().compareTo(previous) > 0, changes.toString());
+                previous = change.getBalance();
+            }
+        }
+        assertTrue(previous.compareTo(BigDecimal.ZERO) > 0);
+    }
+
+    @Test
+    void subscriberFallenBehind_catchesUpWithLatestChange() {
+        // given
+        BalanceChangeFeed.Subscription subscription = balanceChangeFeed.subscribe(balanceChangeFeed.latestSequence(),
+                null);
+        for (int i = 0; i < 20; i++) {
+            accountService.deposit(1L, 1);
+        }
+
+        // when
+        List<BalanceChangeFeed.Change> catchUp = subscription.next(10, WAIT);
+        accountService.deposit(2L, 1);
+        List<BalanceChangeFeed.Change> next = subscription.next(10, WAIT);
+
+        // then
+        subscription.close();
+        assertEquals(1, catchUp.size());
+        assertEquals(BalanceChangeDTO.Type.CATCH_UP, catchUp.get(0).dto().getType());
+        assertEquals(balanceChangeFeed.latestSequence() - 1, catchUp.get(0).sequence());
+        assertEquals(1, next.size());
+        assertEquals(2L, next.get(0).dto().getAccountId());
+    }
+
+    @Test
+    void importAccrualAndRepair_publishTheirChanges() throws Exception {
+        // given an account sequence past the accounts inserted with fixed IDs
+        jdbcTemplate.execute("ALTER SEQUENCE account_seq RESTART WITH 1000");
+        BalanceChangeFeed.Subscription subscription = balanceChangeFeed.subscribe(null, null);
+
+        // when
+        accountBulkService.importAccounts(new ByteArrayInputStream("""
+                accountNumber,name,balance
+                1122334455,Jim Doe,20.00
+                """.getBytes(StandardCharsets.UTF_8)), AccountBulkService.TEXT_CSV);
+        interestAccrualService.accrue(LocalDate.of(2026, 10, 17));
+        jdbcTemplate.update("update account set balance = 1 where id = 2");
+        journalReplayService.replay(true);
+
+        // then
+        List<BalanceChangeDTO> changes = subscription.next(10, WAIT).stream()
+                .map(BalanceChangeFeed.Change::dto).toList();
+        subscription.close();
+        assertEquals(5, changes.size());
+        assertEquals(BalanceChangeDTO.Type.CREATED, changes.get(0).getType());
+        assertEquals(new BigDecimal("20.00"), changes.get(0).getBalance());
+        assertEquals(Set.of(1L, 2L, changes.get(0).getAccountId()), changes.subList(1, 4).stream()
+                .filter(change -> change.getType() == BalanceChangeDTO.Type.INTEREST)
+                .map(BalanceChangeDTO::getAccountId)
+                .collect(Collectors.toSet()));
+        BalanceChangeDTO repaired = changes.get(4);
+        assertEquals(BalanceChangeDTO.Type.REPAIRED, repaired.getType());
+        assertEquals(2L, repaired.getAccountId());
+        assertEquals(new BigDecimal("50.04"), repaired.getAmount());
+        assertEquals(new BigDecimal("50.05"), repaired.getBalance());
+    }
+
+    @Test
+    void changesEndpoint_streamsServerSentEventsAndNdjson() throws Exception {
+        // given
+        MockHttpServletResponse events = mockMvc.perform(get("/api/account/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        MockHttpServletResponse lines = mockMvc.perform(get("/api/account/changes").param("accountId", "2")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        // when
+        accountService.withdraw(1L, 2500);
+        accountService.deposit(2L, 100);
+
+        // then
+        long sequence = balanceChangeFeed.latestSequence();
+        String expectedEvent = "id:" + (sequence - 1) + "\nevent:WITHDRAWAL\ndata:{\"sequence\":" + (sequence - 1)
+                + ",\"accountId\":1,\"type\":\"WITHDRAWAL\",\"amount\":-25.00,\"balance\":75.00,";
+        String expectedLine = "{\"sequence\":" + sequence + ",\"accountId\":2,\"type\":\"DEPOSIT\"";
+        awaitContent(events, expectedEvent);
+        awaitContent(lines, expectedLine);
+        awaitContent(events, "id:" + sequence + "\nevent:DEPOSIT\n");
+        assertTrue(!lines.getContentAsString().contains("WITHDRAWAL"));
+        assertEquals("text/event-stream;charset=UTF-8", events.getContentType());
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!response.getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(response.getContentAsString().contains(expected), response.getContentAsString());
+    }
+}
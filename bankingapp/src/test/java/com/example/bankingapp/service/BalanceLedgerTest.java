@@ -0,0 +1,234 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.model.Money;
+import com.example.bankingapp.model.Transfer;
+import com.example.bankingapp.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "bankingapp.ledger.enabled=true",
+        "bankingapp.ledger.idle-timeout=0s"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {
+        "TRUNCATE TABLE account RESTART IDENTITY",
+        "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot",
+        "INSERT INTO account(id, account_number, name, balance) " +
+                "VALUES (1, '1234567890', 'John Doe', 10000), " +
+                "(2, '0987654321', 'Jane Doe', 0);"
+})
+class BalanceLedgerTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void resetLedger() {
+        balanceLedger.remove(1L);
+        balanceLedger.remove(2L);
+    }
+
+    @Test
+    void concurrentDepositsAndWithdrawals_noLostUpdates() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> results = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                long netCents = 0;
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    long cents = ThreadLocalRandom.current().nextLong(1, 500);
+                    if (ThreadLocalRandom.current().nextBoolean()) {
+                        accountService.deposit(1L, cents);
+                        netCents += cents;
+                    } else {
+                        try {
+                            accountService.withdraw(1L, cents);
+                            netCents -= cents;
+                        } catch (InsufficientFundsException ignored) {
+                            // rejected withdrawals must not change the balance
+                        }
+                    }
+                }
+                return netCents;
+            }));
+        }
+        long expectedCents = 10_000;
+        for (Future<Long> result : results) {
+            expectedCents += result.get();
+        }
+        executor.shutdown();
+        balanceLedger.flush();
+
+        // then
+        assertEquals(Money.toMajorUnits(expectedCents), accountService.getAccount(1L).getBalance());
+        assertEquals(expectedCents, accountRepository.findById(1L).orElseThrow().getBalance());
+    }
+
+    @Test
+    void withdraw_insufficientFunds() {
+        // when & then
+        assertThrows(InsufficientFundsException.class, () -> accountService.withdraw(1L, 10001));
+        accountService.withdraw(1L, 10000);
+        balanceLedger.flush();
+        assertEquals(0L, accountRepository.findById(1L).orElseThrow().getBalance());
+    }
+
+    @Test
+    void transferAll_revertsAppliedTransfersOnFailure() {
+        // when
+        assertThrows(InsufficientFundsException.class, () -> accountService.transferAll(List.of(
+                new Transfer(1L, 2L, 4000),
+                new Transfer(2L, 1L, 5000))));
+        balanceLedger.flush();
+
+        // then
+        assertEquals(10000L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(0L, accountRepository.findById(2L).orElseThrow().getBalance());
+    }
+
+    @Test
+    void failingTransferBatches_neverExposeCreditsToConcurrentWithdrawals() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> results = new ArrayList<>();
+
+        // when: every batch credits account 2 and then overdraws it, so it fails
+        for (int t = 0; t < THREADS; t++) {
+            boolean withdrawing = t % 2 == 0;
+            results.add(executor.submit(() -> {
+                long withdrawn = 0;
+                for (int i = 0; i < OPERATIONS_PER_THREAD / 10; i++) {
+                    try {
+                        if (withdrawing) {
+                            accountService.withdraw(2L, 4000);
+                            withdrawn += 4000;
+                        } else {
+                            accountService.transferAll(List.of(new Transfer(1L, 2L, 4000),
+                                    new Transfer(2L, 1L, 4001)));
+                        }
+                    } catch (InsufficientFundsException ignored) {
+                        // expected for every batch and for withdrawals from the empty account
+                    }
+                }
+                return withdrawn;
+            }));
+        }
+        long withdrawn = 0;
+        for (Future<Long> result : results) {
+            withdrawn += result.get();
+        }
+        executor.shutdown();
+        balanceLedger.flush();
+
+        // then
+        assertEquals(0L, withdrawn);
+        assertEquals(10000L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(0L, accountRepository.findById(2L).orElseThrow().getBalance());
+    }
+
+    @Test
+    void transferAll_appliesBatchThatOnlyCoversAccountsInOrder() {
+        // when
+        accountService.transferAll(List.of(
+                new Transfer(1L, 2L, 4000),
+                new Transfer(2L, 1L, 3000),
+                new Transfer(2L, 1L, 1000)));
+        balanceLedger.flush();
+
+        // then
+        assertEquals(10000L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(0L, accountRepository.findById(2L).orElseThrow().getBalance());
+        assertThrows(InsufficientFundsException.class, () -> accountService.transferAll(List.of(
+                new Transfer(2L, 1L, 1000),
+                new Transfer(1L, 2L, 1000))));
+    }
+
+    @Test
+    void updateAccount_failedUpdateLeavesLedgerBalance() {
+        // given
+        AccountDTO update = new AccountDTO();
+        update.setBalance(new BigDecimal("50.00"));
+        update.setAccountNumber("0987654321");
+
+        // when
+        assertThrows(DataIntegrityViolationException.class, () -> accountService.updateAccount(1L, update));
+        balanceLedger.flush();
+
+        // then
+        assertEquals(new BigDecimal("100.00"), accountService.getAccount(1L).getBalance());
+        assertEquals(10000L, accountRepository.findById(1L).orElseThrow().getBalance());
+    }
+
+    @Test
+    void deleteAccount_rolledBackDeletionKeepsUnflushedChanges() {
+        // given
+        accountService.deposit(1L, 500);
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> {
+            accountService.deleteAccount(1L);
+            status.setRollbackOnly();
+        });
+        balanceLedger.flush();
+
+        // then
+        assertEquals(10500L, accountRepository.findById(1L).orElseThrow().getBalance());
+    }
+
+    @Test
+    void flush_dropsIdleAccountsOnceFlushed() {
+        // given
+        accountService.deposit(1L, 500);
+        accountService.deposit(2L, 300);
+
+        // when: the first sweep finds the accounts used, the second one idle
+        balanceLedger.flush();
+        balanceLedger.flush();
+
+        // then
+        assertEquals(0, balanceLedger.size());
+        assertEquals(10500L, accountRepository.findById(1L).orElseThrow().getBalance());
+        accountService.withdraw(1L, 10500);
+        balanceLedger.flush();
+        assertEquals(0L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(new BigDecimal("3.00"), accountService.getAccount(2L).getBalance());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.repository.BalanceSnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"bankingapp.snapshot.operations=3", "bankingapp.snapshot.check-interval=1h"})
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {"TRUNCATE TABLE account RESTART IDENTITY", "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot"})
+class BalanceSnapshotServiceTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void getBalanceAsOf_combinesNearestSnapshotWithJournalTail() {
+        // given
+        Instant beforeOpening = Instant.now();
+        AccountDTO account = new AccountDTO();
+        account.setAccountNumber("1000000001");
+        account.setName("Snapshot");
+        account.setBalance(new BigDecimal("100.00"));
+        Long id = accountService.createAccount(account).getId();
+        Instant afterOpening = Instant.now();
+        Instant[] afterDeposit = new Instant[5];
+        for (int i = 0; i < afterDeposit.length; i++) {
+            accountService.deposit(id, 1000);
+            afterDeposit[i] = Instant.now();
+        }
+
+        // when
+        int taken = balanceSnapshotService.snapshotDue();
+        accountService.withdraw(id, 500);
+        accountService.deposit(id, 200);
+
+        // then
+        assertTrue(taken >= 1);
+        assertTrue(balanceSnapshotRepository.findFirstByAccountIdOrderByAccountIdDescSequenceNumberDesc(id).isPresent());
+        assertEquals(new BigDecimal("0.00"), balanceSnapshotService.getBalanceAsOf(id, beforeOpening).getBalance());
+        assertEquals(new BigDecimal("100.00"), balanceSnapshotService.getBalanceAsOf(id, afterOpening).getBalance());
+        assertEquals(new BigDecimal("120.00"), balanceSnapshotService.getBalanceAsOf(id, afterDeposit[1]).getBalance());
+        assertEquals(new BigDecimal("150.00"), balanceSnapshotService.getBalanceAsOf(id, afterDeposit[4]).getBalance());
+        assertEquals(new BigDecimal("147.00"), balanceSnapshotService.getBalanceAsOf(id, null).getBalance());
+    }
+
+    @Test
+    void snapshotDue_ignoresOperationsThatRolledBack() {
+        // given
+        AccountDTO account = new AccountDTO();
+        account.setAccountNumber("1000000002");
+        account.setName("Rolled back");
+        account.setBalance(new BigDecimal("100.00"));
+        Long id = accountService.createAccount(account).getId();
+        balanceSnapshotService.snapshotDue();
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                accountService.deposit(id, 1000);
+            }
+            status.setRollbackOnly();
+        });
+
+        // then: only the opening entry and the committed deposits count
+        assertEquals(0, balanceSnapshotService.snapshotDue());
+        accountService.deposit(id, 1000);
+        assertEquals(0, balanceSnapshotService.snapshotDue());
+        accountService.deposit(id, 1000);
+        assertEquals(1, balanceSnapshotService.snapshotDue());
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.repository.AccountRepository;
+import com.example.bankingapp.repository.AccountTransactionRepository;
+import com.example.bankingapp.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "bankingapp.group-commit.enabled=true",
+        "spring.datasource.hikari.connection-timeout=2000",
+        "bankingapp.bulkhead.acquire-timeout=2s"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {
+        "TRUNCATE TABLE account RESTART IDENTITY",
+        "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot",
+        "TRUNCATE TABLE idempotency_record",
+        "INSERT INTO account(id, account_number, name, balance) " +
+                "VALUES (1, '1234567890', 'John Doe', 10000), " +
+                "(2, '0987654321', 'Jane Doe', 0);"
+})
+class GroupCommitTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 200;
+    private static final int KEYED_CALLERS = 32;
+    private static final int KEYS_PER_CALLER = 20;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountTransactionRepository accountTransactionRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentDepositsAndWithdrawals_committedInBatchesWithoutLostUpdates() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> results = new ArrayList<>();
+        long batchesBefore = meterRegistry.summary("account.group.commit.batch.size").count();
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                long netCents = 0;
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    long cents = ThreadLocalRandom.current().nextLong(1, 500);
+                    if (ThreadLocalRandom.current().nextBoolean()) {
+                        accountService.deposit(1L, cents);
+                        netCents += cents;
+                    } else {
+                        try {
+                            accountService.withdraw(1L, cents);
+                            netCents -= cents;
+                        } catch (InsufficientFundsException ignored) {
+                            // rejected withdrawals must not change the balance
+                        }
+                    }
+                }
+                return netCents;
+            }));
+        }
+        long expectedCents = 10_000;
+        for (Future<Long> result : results) {
+            expectedCents += result.get();
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(expectedCents, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(expectedCents, accountTransactionRepository.sumAmounts(1L, 0, Long.MAX_VALUE));
+        long batches = meterRegistry.summary("account.group.commit.batch.size").count() - batchesBefore;
+        assertTrue(batches < THREADS * OPERATIONS_PER_THREAD, "operations should share commits");
+    }
+
+    @Test
+    void keyedDepositsFromMoreCallersThanConnections_appliedOncePerKey() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(KEYED_CALLERS);
+        List<Future<?>> results = new ArrayList<>();
+
+        // when: every key is sent by two callers, so duplicates race through the same batches
+        for (int t = 0; t < KEYED_CALLERS; t++) {
+            int caller = t;
+            results.add(executor.submit(() -> {
+                for (int k = 0; k < KEYS_PER_CALLER; k++) {
+                    String key = "caller-" + caller / 2 + "-" + k;
+                    idempotencyService.execute(key, TransactionType.DEPOSIT, 2L, 100,
+                            record -> accountService.deposit(2L, 100, record));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // then
+        int keys = KEYED_CALLERS / 2 * KEYS_PER_CALLER;
+        assertEquals(keys * 100L, accountRepository.findById(2L).orElseThrow().getBalance());
+        assertEquals(keys * 100L, accountTransactionRepository.sumAmounts(2L, 0, Long.MAX_VALUE));
+        assertEquals(keys, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void failedOperation_doesNotAffectItsBatch() {
+        // when & then
+        assertThrows(InsufficientFundsException.class, () -> accountService.withdraw(2L, 1));
+        assertThrows(EntityNotFoundException.class, () -> accountService.deposit(42L, 1));
+        accountService.deposit(2L, 500);
+        accountService.withdraw(1L, 10000);
+        assertEquals(500L, accountRepository.findById(2L).orElseThrow().getBalance());
+        assertEquals(0L, accountRepository.findById(1L).orElseThrow().getBalance());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.exception.IdempotencyKeyConflictException;
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.repository.AccountRepository;
+import com.example.bankingapp.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.context.jdbc.SqlMergeMode.MergeMode.MERGE;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(statements = {
+        "TRUNCATE TABLE account RESTART IDENTITY",
+        "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot",
+        "TRUNCATE TABLE idempotency_record",
+        "INSERT INTO account(id, account_number, name, balance) " +
+                "VALUES (1, '1234567890', 'John Doe', 1000000), " +
+                "(2, '0987654321', 'Jane Doe', 1000);"
+})
+@SqlMergeMode(MERGE)
+class IdempotencyServiceTest {
+
+    private static final int THREADS = 16;
+    private static final int KEYS = 20;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void racingDuplicates_applyExactlyOnce() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // when
+        for (int k = 0; k < KEYS; k++) {
+            String key = "race-" + k;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    deposit(key, 1L, 100);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(1000000L + KEYS * 100L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(KEYS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM account_transaction WHERE account_id = 1 AND type = 'DEPOSIT'", Integer.class));
+        assertEquals(KEYS, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void insufficientFunds_isReplayedEvenAfterBalanceCovers() {
+        // given
+        assertThrows(InsufficientFundsException.class, () -> withdraw("short", 2L, 5000));
+        accountService.deposit(2L, 10000);
+
+        // when / then
+        assertThrows(InsufficientFundsException.class, () -> withdraw("short", 2L, 5000));
+        assertEquals(11000L, accountRepository.findById(2L).orElseThrow().getBalance());
+    }
+
+    @Test
+    void reusedKeyForDifferentRequest_conflicts() {
+        // given
+        deposit("reused", 1L, 100);
+
+        // when / then
+        assertThrows(IdempotencyKeyConflictException.class, () -> deposit("reused", 1L, 200));
+        assertThrows(IdempotencyKeyConflictException.class, () -> withdraw("reused", 1L, 100));
+        assertEquals(1000100L, accountRepository.findById(1L).orElseThrow().getBalance());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO idempotency_record(idempotency_key, type, account_id, amount, outcome, created_at) " +
+            "VALUES ('stored', 'DEPOSIT', 1, 100, 'APPLIED', CURRENT_TIMESTAMP)")
+    void keyOnlyInDatabase_isNotAppliedAgain() {
+        // when
+        deposit("stored", 1L, 100);
+
+        // then
+        assertEquals(1000000L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM account_transaction WHERE account_id = 1", Integer.class));
+    }
+
+    private void deposit(String key, Long id, long amount) {
+        idempotencyService.execute(key, TransactionType.DEPOSIT, id, amount,
+                record -> accountService.deposit(id, amount, record));
+    }
+
+    private void withdraw(String key, Long id, long amount) {
+        idempotencyService.execute(key, TransactionType.WITHDRAWAL, id, amount,
+                record -> accountService.withdraw(id, amount, record));
+    }
+}
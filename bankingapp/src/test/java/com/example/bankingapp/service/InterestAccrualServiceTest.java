@@ -0,0 +1,121 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.dto.AccrualReportDTO;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "bankingapp.accrual.annual-interest-rate=0.365",
+        "bankingapp.accrual.daily-fee=1.00",
+        "bankingapp.accrual.partition-size=2",
+        "bankingapp.accrual.chunk-size=1",
+        "bankingapp.accrual.parallelism=2"})
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {"TRUNCATE TABLE account RESTART IDENTITY", "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot", "TRUNCATE TABLE accrual_checkpoint",
+        "INSERT INTO account(id, account_number, name, balance) VALUES(1, '1000000001', 'John Doe', 100000)",
+        "INSERT INTO account(id, account_number, name, balance) VALUES(2, '1000000002', 'Jane Doe', 50)",
+        "INSERT INTO account(id, account_number, name, balance) VALUES(3, '1000000003', 'Max Doe', 20000)"})
+class InterestAccrualServiceTest {
+
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2026, 10, 17);
+
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+
+    @Autowired
+    private JournalReplayService journalReplayService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void accrue_postsInterestAndFeesToEveryAccount() {
+        // when
+        AccrualReportDTO report = interestAccrualService.accrue(BUSINESS_DATE);
+
+        // then
+        assertEquals(2, report.getPartitions());
+        assertEquals(3, report.getAccounts());
+        assertEquals(2, report.getInterestPostings());
+        assertEquals(2, report.getFeePostings());
+        assertEquals(1, report.getWaivedFees());
+        assertEquals(new BigDecimal("1.20"), report.getInterest());
+        assertEquals(new BigDecimal("2.00"), report.getFees());
+        assertEquals(100000L, balance(1));
+        assertEquals(50L, balance(2));
+        assertEquals(19920L, balance(3));
+        assertEquals(List.of("OPENING", "INTEREST", "FEE"), types(3));
+        assertEquals(0, journalReplayService.replay(false).getMismatched());
+    }
+
+    @Test
+    void accrue_repeatedOrResumed_postsEveryAccountOnce() {
+        // given a run that committed the first account before it was interrupted
+        jdbcTemplate.update("INSERT INTO accrual_checkpoint(business_date, partition_start, partition_end, " +
+                "last_account_id, completed) VALUES (?, 1, 2, 1, false), (?, 3, 3, 2, false)",
+                BUSINESS_DATE, BUSINESS_DATE);
+
+        // when
+        AccrualReportDTO resumed = interestAccrualService.accrue(BUSINESS_DATE);
+        AccrualReportDTO repeated = interestAccrualService.accrue(BUSINESS_DATE);
+
+        // then
+        assertEquals(1, resumed.getResumedPartitions());
+        assertEquals(2, resumed.getAccounts());
+        assertEquals(100000L, balance(1));
+        assertEquals(List.of(), types(1));
+        assertEquals(19920L, balance(3));
+        assertEquals(2, repeated.getResumedPartitions());
+        assertEquals(0, repeated.getAccounts());
+        assertEquals(List.of("OPENING", "INTEREST", "FEE"), types(3));
+    }
+
+    @Test
+    void scheduledRun_finishesUnfinishedBusinessDatesFirst() {
+        // given a run of an earlier business date that failed before posting any account
+        LocalDate previousDay = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate unfinished = previousDay.minusDays(3);
+        jdbcTemplate.update("INSERT INTO accrual_checkpoint(business_date, partition_start, partition_end, " +
+                "last_account_id, completed) VALUES (?, 1, 2, 0, false), (?, 3, 3, 2, false)",
+                unfinished, unfinished);
+
+        // when
+        interestAccrualService.accruePreviousDay();
+
+        // then
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from accrual_checkpoint where not completed", Integer.class));
+        assertEquals(List.of(unfinished, previousDay), jdbcTemplate.queryForList(
+                "select distinct business_date from accrual_checkpoint order by business_date", LocalDate.class));
+        assertEquals(List.of("OPENING", "INTEREST", "FEE", "INTEREST", "FEE"), types(3));
+        assertEquals(19839L, balance(3));
+    }
+
+    private long balance(long id) {
+        return accountRepository.findById(id).orElseThrow().getBalance();
+    }
+
+    private List<String> types(long id) {
+        return jdbcTemplate.queryForList("select type from account_transaction where account_id = ? " +
+                "order by sequence_number", String.class, id);
+    }
+}
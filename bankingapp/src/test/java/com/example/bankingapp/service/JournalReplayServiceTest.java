@@ -0,0 +1,87 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.ReplayReportDTO;
+import com.example.bankingapp.model.Transfer;
+import com.example.bankingapp.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "bankingapp.journal.replay-partition-size=2")
+@ActiveProfiles("test")
+@DirtiesContext
+@Sql(statements = {"TRUNCATE TABLE account RESTART IDENTITY", "TRUNCATE TABLE account_transaction",
+        "TRUNCATE TABLE balance_snapshot"})
+class JournalReplayServiceTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JournalReplayService journalReplayService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void replay_matchesBalancesChangedThroughService() {
+        // given
+        Long first = createAccount("1000000001", "100.00");
+        Long second = createAccount("1000000002", "0");
+        Long third = createAccount("1000000003", "25.50");
+        accountService.deposit(first, 1000);
+        accountService.withdraw(third, 550);
+        accountService.transfer(new Transfer(first, second, 4000));
+
+        // when
+        ReplayReportDTO report = journalReplayService.replay(false);
+
+        // then
+        assertEquals(3, report.getAccounts());
+        assertEquals(6, report.getEntries());
+        assertEquals(0, report.getMismatched());
+        assertEquals(0, report.getSequenceGaps());
+    }
+
+    @Test
+    void replay_detectsAndRebuildsDriftedBalance() {
+        // given
+        Long first = createAccount("1000000001", "100.00");
+        Long second = createAccount("1000000002", "50.00");
+        accountService.deposit(second, 500);
+        jdbcTemplate.update("update account set balance = 1 where id = ?", second);
+
+        // when
+        ReplayReportDTO verified = journalReplayService.replay(false);
+        ReplayReportDTO rebuilt = journalReplayService.replay(true);
+
+        // then
+        assertEquals(1, verified.getMismatched());
+        assertEquals(second, verified.getMismatches().get(0).getAccountId());
+        assertEquals(new BigDecimal("55.00"), verified.getMismatches().get(0).getJournalBalance());
+        assertEquals(1, rebuilt.getRebuilt());
+        assertEquals(5500L, accountRepository.findById(second).orElseThrow().getBalance());
+        assertEquals(10000L, accountRepository.findById(first).orElseThrow().getBalance());
+        assertEquals(0, journalReplayService.replay(false).getMismatched());
+    }
+
+    private Long createAccount(String accountNumber, String balance) {
+        AccountDTO account = new AccountDTO();
+        account.setAccountNumber(accountNumber);
+        account.setName("Account " + accountNumber);
+        account.setBalance(new BigDecimal(balance));
+        return accountService.createAccount(account).getId();
+    }
+}
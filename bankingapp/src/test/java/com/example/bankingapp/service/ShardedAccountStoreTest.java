@@ -0,0 +1,216 @@
+package com.example.bankingapp.service;
+
+import com.example.bankingapp.dto.AccountDTO;
+import com.example.bankingapp.dto.AccountPageDTO;
+import com.example.bankingapp.exception.InsufficientFundsException;
+import com.example.bankingapp.model.TransactionType;
+import com.example.bankingapp.model.Transfer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "bankingapp.sharding.enabled=true",
+        "bankingapp.sharding.count=4",
+        "bankingapp.sharding.url=jdbc:h2:mem:shard-{shard};DB_CLOSE_DELAY=-1",
+        "bankingapp.sharding.stream-batch-size=2"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class ShardedAccountStoreTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountShards shards;
+
+    @Autowired
+    private ShardedAccountStore shardedAccountStore;
+
+    @Autowired
+    private JournalReplayService journalReplayService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void clearShards() {
+        for (int index = 0; index < shards.count(); index++) {
+            shards.get(index).jdbcTemplate().execute("truncate table account");
+            shards.get(index).jdbcTemplate().execute("truncate table account_transaction");
+        }
+    }
+
+    @Test
+    void createAccount_storesAccountOnShardOfItsNumber() {
+        // when
+        List<AccountDTO> created = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            created.add(createAccount(String.valueOf(1000000000 + i), "10.00"));
+        }
+
+        // then
+        for (AccountDTO account : created) {
+            AccountShards.Shard shard = shards.ofAccountNumber(account.getAccountNumber());
+            assertEquals(shard.index(), shards.ofAccount(account.getId()).index());
+            assertEquals(1, shard.jdbcTemplate().queryForObject(
+                    "select count(*) from account where id = ?", Integer.class, account.getId()));
+            assertEquals(account.getAccountNumber(), accountService.getAccount(account.getId()).getAccountNumber());
+            assertEquals(account.getId(), accountService.resolveId(account.getAccountNumber()));
+        }
+    }
+
+    @Test
+    void getPageAndStreamAll_mergeShardsInIdOrder() {
+        // given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            ids.add(createAccount(String.valueOf(1000000000 + i), "0").getId());
+        }
+        ids.sort(null);
+
+        // when
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            AccountPageDTO page = accountService.getPage(cursor, 3);
+            page.getContent().forEach(account -> paged.add(account.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        List<Long> streamed = new ArrayList<>();
+        accountService.streamAll(account -> streamed.add(account.getId()));
+
+        // then
+        assertEquals(ids, paged);
+        assertEquals(ids, streamed);
+    }
+
+    @Test
+    void transferAll_commitsOnEveryShardOfTheBatch() {
+        // given
+        AccountDTO first = createAccount("1000000001", "100.00");
+        AccountDTO second = createAccountOnOtherShard(first, "0");
+
+        // when
+        accountService.transferAll(List.of(new Transfer(first.getId(), second.getId(), 3000),
+                new Transfer(second.getId(), first.getId(), 1000)));
+
+        // then
+        assertEquals(new BigDecimal("80.00"), accountService.getAccount(first.getId()).getBalance());
+        assertEquals(new BigDecimal("20.00"), accountService.getAccount(second.getId()).getBalance());
+        assertEquals(3, accountService.getTransactions(first.getId(), null, 10).getContent().size());
+        assertEquals(2, accountService.getTransactions(second.getId(), null, 10).getContent().size());
+        assertEquals(0, inDoubt() + decisions());
+    }
+
+    @Test
+    void transferAll_rollsBackEveryShardWhenOneTransferFails() {
+        // given
+        AccountDTO first = createAccount("1000000001", "100.00");
+        AccountDTO second = createAccountOnOtherShard(first, "5.00");
+
+        // when
+        assertThrows(InsufficientFundsException.class, () -> accountService.transferAll(List.of(
+                new Transfer(first.getId(), second.getId(), 3000),
+                new Transfer(second.getId(), first.getId(), 9000))));
+
+        // then
+        assertEquals(new BigDecimal("100.00"), accountService.getAccount(first.getId()).getBalance());
+        assertEquals(new BigDecimal("5.00"), accountService.getAccount(second.getId()).getBalance());
+        assertEquals(1, accountService.getTransactions(first.getId(), null, 10).getContent().size());
+        assertEquals(1, accountService.getTransactions(second.getId(), null, 10).getContent().size());
+        assertEquals(0, inDoubt() + decisions());
+    }
+
+    @Test
+    void transferAll_commitsShardWhoseCommitFailsAfterTheDecision() {
+        // given
+        AccountDTO first = createAccount("1000000001", "100.00");
+        AccountDTO second = createAccountOnOtherShard(first, "0");
+        // the second shard of the transfer fails to commit its prepared part
+        int failing = Math.max(shards.ofAccount(first.getId()).index(), shards.ofAccount(second.getId()).index());
+        ShardedAccountStore.ShardCommit commit = shardedAccountStore.shardCommit;
+        shardedAccountStore.shardCommit = (shard, connection) -> {
+            if (shard.index() == failing) {
+                throw new SQLException("Injected commit failure");
+            }
+            commit.commit(shard, connection);
+        };
+
+        // when
+        try {
+            accountService.transferAll(List.of(new Transfer(first.getId(), second.getId(), 3000)));
+        } finally {
+            shardedAccountStore.shardCommit = commit;
+        }
+
+        // then
+        assertEquals(new BigDecimal("70.00"), accountService.getAccount(first.getId()).getBalance());
+        assertEquals(new BigDecimal("30.00"), accountService.getAccount(second.getId()).getBalance());
+        assertEquals(2, accountService.getTransactions(first.getId(), null, 10).getContent().size());
+        assertEquals(1, accountService.getTransactions(second.getId(), null, 10).getContent().size());
+        assertEquals(0, inDoubt() + decisions());
+    }
+
+    @Test
+    void replay_isRefusedWhileSharded() {
+        assertThrows(IllegalArgumentException.class, () -> journalReplayService.replay(false));
+    }
+
+    @Test
+    void idempotencyKey_isRefusedWhileSharded() {
+        // given
+        AccountDTO account = createAccount("1000000001", "10.00");
+
+        // when
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("key-1",
+                TransactionType.DEPOSIT, account.getId(), 500,
+                record -> accountService.deposit(account.getId(), 500, record)));
+
+        // then
+        assertEquals(new BigDecimal("10.00"), accountService.getAccount(account.getId()).getBalance());
+    }
+
+    private AccountDTO createAccountOnOtherShard(AccountDTO other, String balance) {
+        for (int i = 0; ; i++) {
+            String accountNumber = String.valueOf(1100000000 + i);
+            if (shards.ofAccountNumber(accountNumber) != shards.ofAccount(other.getId())) {
+                return createAccount(accountNumber, balance);
+            }
+        }
+    }
+
+    private AccountDTO createAccount(String accountNumber, String balance) {
+        AccountDTO account = new AccountDTO();
+        account.setAccountNumber(accountNumber);
+        account.setName("Account " + accountNumber);
+        account.setBalance(new BigDecimal(balance));
+        return accountService.createAccount(account);
+    }
+
+    private int inDoubt() {
+        int count = 0;
+        for (int index = 0; index < shards.count(); index++) {
+            count += shards.get(index).jdbcTemplate().queryForObject(
+                    "select count(*) from information_schema.in_doubt", Integer.class);
+        }
+        return count;
+    }
+
+    private int decisions() {
+        return shards.get(0).jdbcTemplate().queryForObject("select count(*) from shard_transfer", Integer.class);
+    }
+}